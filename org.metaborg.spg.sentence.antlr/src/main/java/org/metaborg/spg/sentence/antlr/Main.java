@@ -3,6 +3,7 @@ package org.metaborg.spg.sentence.antlr;
 import static org.metaborg.spg.sentence.shared.utils.FunctionalUtils.uncheckPredicate;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -24,6 +25,7 @@ import org.metaborg.spg.sentence.antlr.grammar.GrammarFactory;
 import org.metaborg.spg.sentence.antlr.shrinker.Shrinker;
 import org.metaborg.spg.sentence.antlr.shrinker.ShrinkerFactory;
 import org.metaborg.spg.sentence.antlr.term.Term;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spoofax.core.Spoofax;
 import org.metaborg.spoofax.core.shell.CLIUtils;
 import org.metaborg.spoofax.core.syntax.JSGLRParserConfiguration;
@@ -39,7 +41,17 @@ public class Main {
             Integer.MAX_VALUE
     );
 
-    public static void main(String[] args) {
+    private static final String LIST_REDUCTION = "--list-reduction=";
+
+    // Usage: <antlr language> <antlr grammar> <language> <start symbol> <size> [boltzmann size]
+    //        [--list-reduction=single|ddmin]
+    public static void main(String[] arguments) {
+        String[] args = Arrays.stream(arguments).filter(argument -> !argument.startsWith("--")).toArray(String[]::new);
+        ListReduction listReduction = Arrays.stream(arguments)
+                .filter(argument -> argument.startsWith(LIST_REDUCTION))
+                .map(argument -> ListReduction.valueOf(argument.substring(LIST_REDUCTION.length()).toUpperCase()))
+                .findFirst()
+                .orElse(ListReduction.SINGLE);
 
         try (final Spoofax spoofax = new Spoofax(new Module(0))) {
             final CLIUtils cli = new CLIUtils(spoofax);
@@ -72,10 +84,12 @@ public class Main {
             Grammar grammar = grammarFactory.create(grammarFile, antlrLanguageImpl);
 
             GeneratorFactory generatorFactory = spoofax.injector.getInstance(GeneratorFactory.class);
-            Generator generator = generatorFactory.create(grammar);
+            Generator generator = args.length > 5
+                    ? generatorFactory.createBoltzmann(grammar, Integer.valueOf(args[5]))
+                    : generatorFactory.create(grammar);
 
             ShrinkerFactory shrinkerFactory = spoofax.injector.getInstance(ShrinkerFactory.class);
-            Shrinker shrinker = shrinkerFactory.create(generator, grammar);
+            Shrinker shrinker = shrinkerFactory.create(generator, grammar, listReduction);
 
             org.antlr.v4.tool.Grammar antlrGrammar = org.antlr.v4.tool.Grammar.load(args[1]);
 
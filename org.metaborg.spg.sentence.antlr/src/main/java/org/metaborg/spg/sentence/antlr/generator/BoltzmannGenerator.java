@@ -0,0 +1,309 @@
+package org.metaborg.spg.sentence.antlr.generator;
+
+import org.metaborg.spg.sentence.antlr.grammar.*;
+import org.metaborg.spg.sentence.antlr.term.Term;
+import org.metaborg.spg.sentence.antlr.term.TermList;
+import org.metaborg.spg.sentence.antlr.term.Text;
+
+import java.util.*;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+/**
+ * A generator that samples terms from a Boltzmann distribution tuned to a target size.
+ *
+ * Every nonterminal, concatenation and leaf counts as one node. Alternatives, optionals and list lengths are chosen
+ * with probabilities derived from the generating functions of the grammar at the tuned parameter, and samples outside
+ * the tolerance window around the target size are rejected.
+ */
+public class BoltzmannGenerator extends Generator {
+    public static final double DEFAULT_TOLERANCE = 0.2;
+
+    private static final int MAX_ATTEMPTS = 100;
+    private static final int MAX_ITERATIONS = 10000;
+    private static final int TUNING_ITERATIONS = 50;
+    private static final double PRECISION = 1e-10;
+    private static final double DIVERGENCE = 1e15;
+
+    private final Map<String, Evaluation> evaluations;
+    private final int targetSize;
+    private final double tolerance;
+
+    public BoltzmannGenerator(Random random, Grammar grammar, int targetSize, double tolerance) {
+        super(random, grammar);
+
+        this.evaluations = new HashMap<>();
+        this.targetSize = targetSize;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public Optional<Term> generate(String startSymbol, int size) {
+        int target = Math.min(targetSize, size);
+        Nonterminal start = new Nonterminal(startSymbol);
+        Evaluation evaluation = evaluations.computeIfAbsent(startSymbol + "@" + target, key -> tune(start, target));
+
+        int lowerBound = (int) Math.floor(target * (1 - tolerance));
+        int upperBound = Math.min(size, (int) Math.ceil(target * (1 + tolerance)));
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            Budget budget = new Budget(upperBound);
+            Optional<Term> termOpt = sample(start, evaluation, budget);
+
+            if (termOpt.isPresent() && budget.spent >= lowerBound) {
+                return termOpt;
+            }
+        }
+
+        return empty();
+    }
+
+    private Evaluation tune(Nonterminal start, int target) {
+        double lower = 0;
+        double upper = 1;
+
+        for (int i = 0; i < TUNING_ITERATIONS; i++) {
+            double x = (lower + upper) / 2;
+            Optional<Double> expectedSize = expectedSize(start, x);
+
+            if (!expectedSize.isPresent() || expectedSize.get() > target) {
+                upper = x;
+            } else {
+                lower = x;
+            }
+        }
+
+        Optional<Evaluation> evaluation = evaluate(lower);
+
+        if (!evaluation.isPresent()) {
+            throw new IllegalStateException("Unable to tune the Boltzmann sampler for size " + target);
+        }
+
+        return evaluation.get();
+    }
+
+    private Optional<Double> expectedSize(Nonterminal start, double x) {
+        double h = 1e-6;
+        Optional<Evaluation> evaluation = evaluate(x);
+        Optional<Evaluation> shifted = evaluate(x * (1 + h));
+
+        if (!evaluation.isPresent() || !shifted.isPresent()) {
+            return empty();
+        }
+
+        double value = evaluation.get().get(start);
+        double shiftedValue = shifted.get().get(start);
+
+        if (value <= 0) {
+            return empty();
+        }
+
+        return of((Math.log(shiftedValue) - Math.log(value)) / Math.log(1 + h));
+    }
+
+    private Optional<Evaluation> evaluate(double x) {
+        Evaluation evaluation = new Evaluation(x, new HashMap<>());
+
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            Map<String, Double> ruleValues = new HashMap<>();
+            double change = 0;
+
+            for (Rule rule : grammar.getRules()) {
+                double value = evaluation.get(rule.getEmptyElement());
+
+                if (Double.isNaN(value) || value > DIVERGENCE) {
+                    return empty();
+                }
+
+                ruleValues.put(rule.getName(), value);
+                change = Math.max(change, value - evaluation.ruleValues.getOrDefault(rule.getName(), 0.0));
+            }
+
+            evaluation = new Evaluation(x, ruleValues);
+
+            if (change < PRECISION) {
+                return of(evaluation);
+            }
+        }
+
+        return empty();
+    }
+
+    private Optional<Term> sample(EmptyElement element, Evaluation evaluation, Budget budget) {
+        if (element instanceof Nonterminal) {
+            return sampleNonterminal((Nonterminal) element, evaluation, budget);
+        } else if (element instanceof Conc) {
+            return sampleConc((Conc) element, evaluation, budget);
+        } else if (element instanceof Alt) {
+            return sampleAlt((Alt) element, evaluation, budget);
+        } else if (element instanceof Opt) {
+            return sampleOpt((Opt) element, evaluation, budget);
+        } else if (element instanceof Star) {
+            return sampleList((Star) element, ((Star) element).getElement(), false, evaluation, budget);
+        } else if (element instanceof Plus) {
+            return sampleList((Plus) element, ((Plus) element).getElement(), true, evaluation, budget);
+        }
+
+        if (!budget.spend()) {
+            return empty();
+        }
+
+        return forElement(element, 1);
+    }
+
+    private Optional<Term> sampleNonterminal(Nonterminal nonterminal, Evaluation evaluation, Budget budget) {
+        if (!budget.spend()) {
+            return empty();
+        }
+
+        Rule rule = grammar.getRule(nonterminal.getName());
+        Optional<Term> termOpt = sample(rule.getEmptyElement(), evaluation, budget);
+
+        if (rule.isLexical()) {
+            termOpt = termOpt.map(this::join);
+        }
+
+        return termOpt.map(term -> node(nonterminal, term));
+    }
+
+    private Optional<Term> sampleConc(Conc element, Evaluation evaluation, Budget budget) {
+        if (!budget.spend()) {
+            return empty();
+        }
+
+        Optional<Term> headOpt = sample(element.getFirst(), evaluation, budget);
+
+        if (headOpt.isPresent()) {
+            Optional<Term> tailOpt = sample(element.getSecond(), evaluation, budget);
+
+            if (tailOpt.isPresent()) {
+                return of(node(element, headOpt.get(), tailOpt.get()));
+            }
+        }
+
+        return empty();
+    }
+
+    private Optional<Term> sampleAlt(Alt element, Evaluation evaluation, Budget budget) {
+        double first = evaluation.get(element.getFirst());
+        double second = evaluation.get(element.getSecond());
+
+        if (random.nextDouble() * (first + second) < first) {
+            return sample(element.getFirst(), evaluation, budget);
+        } else {
+            return sample(element.getSecond(), evaluation, budget);
+        }
+    }
+
+    private Optional<Term> sampleOpt(Opt element, Evaluation evaluation, Budget budget) {
+        double value = evaluation.get(element.getElement());
+
+        if (random.nextDouble() * (evaluation.x + value) < evaluation.x) {
+            if (!budget.spend()) {
+                return empty();
+            }
+
+            return of(Text.EMPTY);
+        } else {
+            return sample(element.getElement(), evaluation, budget);
+        }
+    }
+
+    private Optional<Term> sampleList(Element operation, Element element, boolean nonEmpty, Evaluation evaluation, Budget budget) {
+        if (!budget.spend()) {
+            return empty();
+        }
+
+        double value = evaluation.get(element);
+        List<Term> children = new ArrayList<>();
+
+        while ((nonEmpty && children.isEmpty()) || random.nextDouble() < value) {
+            Optional<Term> childOpt = sample(element, evaluation, budget);
+
+            if (!childOpt.isPresent()) {
+                return empty();
+            }
+
+            children.add(childOpt.get());
+        }
+
+        if (children.isEmpty()) {
+            return of(list(new Star(element)));
+        }
+
+        return of(list(operation, children.toArray(new Term[0])));
+    }
+
+    private static class Budget {
+        private final int limit;
+        private int spent;
+
+        public Budget(int limit) {
+            this.limit = limit;
+        }
+
+        public boolean spend() {
+            spent++;
+
+            return spent <= limit;
+        }
+    }
+
+    /**
+     * The values of the generating functions at x. Rule values come from the fixpoint iteration, values of compound
+     * elements are derived from them and cached by identity.
+     */
+    private static class Evaluation {
+        private final double x;
+        private final Map<String, Double> ruleValues;
+        private final Map<EmptyElement, Double> elementValues;
+
+        public Evaluation(double x, Map<String, Double> ruleValues) {
+            this.x = x;
+            this.ruleValues = ruleValues;
+            this.elementValues = new IdentityHashMap<>();
+        }
+
+        public double get(EmptyElement element) {
+            if (element instanceof Nonterminal) {
+                return x * ruleValues.getOrDefault(((Nonterminal) element).getName(), 0.0);
+            }
+
+            Double value = elementValues.get(element);
+
+            if (value == null) {
+                value = compute(element);
+                elementValues.put(element, value);
+            }
+
+            return value;
+        }
+
+        private double compute(EmptyElement element) {
+            if (element instanceof Conc) {
+                return x * get(((Conc) element).getFirst()) * get(((Conc) element).getSecond());
+            } else if (element instanceof Alt) {
+                return get(((Alt) element).getFirst()) + get(((Alt) element).getSecond());
+            } else if (element instanceof Opt) {
+                return x + get(((Opt) element).getElement());
+            } else if (element instanceof Star) {
+                return x * star(get(((Star) element).getElement()));
+            } else if (element instanceof Plus) {
+                double value = get(((Plus) element).getElement());
+
+                return x * value * star(value);
+            }
+
+            return x;
+        }
+
+        private double star(double value) {
+            if (value >= 1) {
+                return Double.NaN;
+            }
+
+            return 1 / (1 - value);
+        }
+    }
+}
@@ -6,7 +6,11 @@ import org.metaborg.spg.sentence.antlr.term.Appl;
 import org.metaborg.spg.sentence.antlr.term.Term;
 import org.metaborg.spg.sentence.antlr.term.TermList;
 import org.metaborg.spg.sentence.antlr.term.Text;
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
+import org.metaborg.spg.sentence.shared.generator.RandomSource;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
@@ -14,12 +18,23 @@ import static java.util.Optional.empty;
 import static java.util.Optional.of;
 
 public class Generator {
-    private final Random random;
-    private final Grammar grammar;
+    // A nonterminal and its body; elements that need less can still be generated in a larger share
+    private static final int MINIMUM_ELEMENT_SIZE = 2;
+
+    protected final Random random;
+    protected final Grammar grammar;
+    protected final ListLengthStrategy listLength;
+    private final RandomSource randomSource;
 
     public Generator(Random random, Grammar grammar) {
+        this(random, grammar, ListLengthStrategy.DEFAULT);
+    }
+
+    public Generator(Random random, Grammar grammar, ListLengthStrategy listLength) {
         this.random = random;
         this.grammar = grammar;
+        this.listLength = listLength;
+        this.randomSource = RandomSource.of(random);
     }
 
     public Optional<Term> generate(String startSymbol, int size) {
@@ -146,38 +161,30 @@ public class Generator {
     }
 
     private Optional<Term> generateStar(Star element, int size) {
-        if (random.nextInt(2) == 0) {
-            return of(list(element));
-        } else {
-            int headSize = size / 4;
-            int tailSize = size - headSize;
-
-            Optional<Term> tailOpt = forElement(element, tailSize);
-
-            return tailOpt.map(tail -> prepend(element, element.getElement(), tail, headSize));
-        }
+        return generateList(element, element, false, size);
     }
 
-    // TODO: This is wrong; it may return empty lists!
     private Optional<Term> generatePlus(Plus element, int size) {
-        int headSize = size / 4;
-        int tailSize = size - headSize;
-
-        Optional<Term> tailOpt = generateStar(new Star(element.getElement()), tailSize);
-
-        return tailOpt.map(tail -> prepend(element, element.getElement(), tail, headSize));
+        return generateList(element, new Star(element.getElement()), true, size);
     }
 
-    private Term prepend(Element operation, Element element, Term tail, int size) {
-        Optional<Term> headOpt = forElement(element, size);
+    private Optional<Term> generateList(Element operation, Star star, boolean nonEmpty, int size) {
+        // The length is chosen up front and the budget is divided evenly over the elements
+        int length = listLength.length(nonEmpty ? 1 : 0, size / MINIMUM_ELEMENT_SIZE, randomSource);
+        List<Term> elements = new ArrayList<>(length);
 
-        if (headOpt.isPresent()) {
-            TermList termList = (TermList) tail;
+        for (int i = 0; i < length; i++) {
+            int elementSize = size / length + (i < size % length ? 1 : 0);
 
-            return list(operation, headOpt.get(), termList);
-        } else {
-            return tail;
+            // Elements that cannot be generated in their share of the budget are left out
+            forElement(star.getElement(), elementSize).ifPresent(elements::add);
         }
+
+        if (nonEmpty && elements.isEmpty()) {
+            return empty();
+        }
+
+        return of(list(nonEmpty ? operation : star, elements.toArray(new Term[0])));
     }
 
     private Optional<Term> generateDottedRange(DottedRange element) {
@@ -249,23 +256,23 @@ public class Generator {
         return of(leaf(s.getText()));
     }
 
-    private Term join(Term term) {
+    protected Term join(Term term) {
         return leaf(term.toString(false));
     }
 
-    private TermList list(Element element, Term term, TermList tail) {
-        return new TermList(element, term, tail);
+    protected TermList list(Star element) {
+        return new TermList(element);
     }
 
-    private TermList list(Star element) {
-        return new TermList(element);
+    protected TermList list(Element element, Term[] elements) {
+        return new TermList(element, elements);
     }
 
-    private Term node(EmptyElement elementOpt, Term... children) {
+    protected Term node(EmptyElement elementOpt, Term... children) {
         return new Appl(elementOpt, children);
     }
 
-    private Term leaf(String text) {
+    protected Term leaf(String text) {
         return new Text(text);
     }
 }
@@ -3,6 +3,8 @@ package org.metaborg.spg.sentence.antlr.generator;
 import com.google.inject.Inject;
 import org.metaborg.spg.sentence.antlr.grammar.Grammar;
 
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
+
 import java.util.Random;
 
 public class GeneratorFactory {
@@ -16,4 +18,12 @@ public class GeneratorFactory {
     public Generator create(Grammar grammar) {
         return new Generator(random, grammar);
     }
+
+    public Generator create(Grammar grammar, ListLengthStrategy listLength) {
+        return new Generator(random, grammar, listLength);
+    }
+
+    public Generator createBoltzmann(Grammar grammar, int targetSize) {
+        return new BoltzmannGenerator(random, grammar, targetSize, BoltzmannGenerator.DEFAULT_TOLERANCE);
+    }
 }
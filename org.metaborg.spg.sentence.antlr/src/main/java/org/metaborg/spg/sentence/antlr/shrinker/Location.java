@@ -0,0 +1,69 @@
+package org.metaborg.spg.sentence.antlr.shrinker;
+
+import org.metaborg.spg.sentence.antlr.term.Appl;
+import org.metaborg.spg.sentence.antlr.term.Term;
+import org.metaborg.spg.sentence.antlr.term.TermList;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A subterm together with its way back to the root: the location of its parent and its index among the children.
+ *
+ * Replacing the subterm copies only the terms on the path to the root and shares all other subterms, so it takes
+ * time and space in the depth of the subterm instead of in the size of the term.
+ */
+class Location {
+    private final Term term;
+    private final Location parent;
+    private final int index;
+
+    public Location(Term term) {
+        this(term, null, -1);
+    }
+
+    private Location(Term term, Location parent, int index) {
+        this.term = term;
+        this.parent = parent;
+        this.index = index;
+    }
+
+    public Term getTerm() {
+        return term;
+    }
+
+    public Location child(int index) {
+        return new Location(term.getChildren()[index], this, index);
+    }
+
+    public Stream<Location> children() {
+        return IntStream.range(0, term.getChildren().length).mapToObj(this::child);
+    }
+
+    public Term replace(Term replacement) {
+        Term result = replacement;
+
+        for (Location location = this; location.parent != null; location = location.parent) {
+            Term[] children = location.parent.term.getChildren().clone();
+            children[location.index] = result;
+
+            result = withChildren(location.parent.term, children);
+        }
+
+        return result;
+    }
+
+    private static Term withChildren(Term term, Term[] children) {
+        if (term instanceof Appl) {
+            Appl appl = (Appl) term;
+
+            return new Appl(appl.getEmptyElement(), children);
+        } else if (term instanceof TermList) {
+            TermList list = (TermList) term;
+
+            return new TermList(list.getEmptyElement(), children);
+        }
+
+        throw new IllegalArgumentException("Unexpected term (neither node nor leaf).");
+    }
+}
@@ -7,10 +7,9 @@ import org.metaborg.spg.sentence.antlr.term.Appl;
 import org.metaborg.spg.sentence.antlr.term.Term;
 import org.metaborg.spg.sentence.antlr.term.TermList;
 import org.metaborg.spg.sentence.antlr.term.Text;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Stream.concat;
@@ -18,52 +17,58 @@ import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static org.metaborg.spg.sentence.shared.stream.FlatMappingSpliterator.flatMap;
 import static org.metaborg.spg.sentence.shared.utils.StreamUtils.o2s;
-import static org.metaborg.spg.sentence.shared.utils.StreamUtils.snoc;
 
 public class Shrinker {
     private final Random random;
     private final Generator generator;
     private final Grammar grammar;
+    private final ListReduction listReduction;
 
     public Shrinker(Random random, Generator generator, Grammar grammar) {
+        this(random, generator, grammar, ListReduction.SINGLE);
+    }
+
+    public Shrinker(Random random, Generator generator, Grammar grammar, ListReduction listReduction) {
         this.random = random;
         this.generator = generator;
         this.grammar = grammar;
+        this.listReduction = listReduction;
     }
 
     public Stream<Term> shrink(Term term) {
-        List<Term> subtrees = subterms(term).collect(Collectors.toList());
+        List<Location> subtrees = subterms(new Location(term));
 
         Collections.shuffle(subtrees, random);
 
-        return flatMap(subtrees.stream(), subTree ->
-                shrink(term, subTree)
-        );
+        return flatMap(subtrees.stream(), this::shrink);
     }
 
-    private Stream<Term> shrink(Term term, Term subTerm) {
+    private Stream<Term> shrink(Location location) {
+        Term subTerm = location.getTerm();
+
         if (subTerm instanceof Text) {
-            return of(term);
+            return of(location.replace(subTerm));
         } else if (subTerm instanceof Appl) {
-            Appl appl = (Appl) subTerm;
-
-            return concat(shrinkAppl(term, appl), shrinkRecursive(term, appl));
+            return concat(shrinkAppl(location), shrinkRecursive(location));
         } else if (subTerm instanceof TermList) {
-            return shrinkList(term, (TermList) subTerm);
+            return shrinkList(location);
         }
 
-        throw new IllegalStateException("Unknown term: " + term);
+        throw new IllegalStateException("Unknown term: " + subTerm);
     }
 
-    private Stream<Term> shrinkRecursive(Term term, Appl appl) {
+    private Stream<Term> shrinkRecursive(Location location) {
+        Appl appl = (Appl) location.getTerm();
+
         if (appl.getEmptyElement() instanceof Nonterminal) {
             Nonterminal nonterminal = (Nonterminal) appl.getEmptyElement();
-            Stream<Term> descendants = descendants(appl);
+            List<Location> descendants = descendants(location);
             Set<Nonterminal> injections = grammar.getInjections(nonterminal);
 
-            return descendants
+            return descendants.stream()
+                    .map(Location::getTerm)
                     .filter(descendant -> isValidDescendant(descendant, injections))
-                    .map(descendant -> replace(term, appl, descendant));
+                    .map(location::replace);
         }
 
         return empty();
@@ -83,101 +88,53 @@ public class Shrinker {
         return false;
     }
 
-    private Stream<Term> shrinkAppl(Term term, Appl appl) {
-        int size = size(appl);
-        int newSize = size - 1;
+    private Stream<Term> shrinkAppl(Location location) {
+        Appl appl = (Appl) location.getTerm();
+        int newSize = appl.getTreeSize() - 1;
 
         Optional<Term> newSubTerm = generator.forElement(appl.getEmptyElement(), newSize);
 
-        return o2s(newSubTerm.map(replacement ->
-                replace(term, appl, replacement)
-        ));
+        return o2s(newSubTerm.map(location::replace));
     }
 
-    private Stream<Term> shrinkList(Term term, TermList list) {
-        if (!isLargeList(list)) {
-            return empty();
-        }
+    private Stream<Term> shrinkList(Location location) {
+        TermList list = (TermList) location.getTerm();
+        int minimumLength = list.getEmptyElement() instanceof Plus ? 1 : 0;
 
-        return combinations(list).map(newList ->
-                replace(term, list, newList)
+        return listReduction.removals(list.size(), minimumLength).stream().map(removal ->
+                location.replace(without(list, removal[0], removal[1]))
         );
     }
 
-    private boolean isLargeList(TermList list) {
-        EmptyElement emptyElement = list.getEmptyElement();
-
-        if (emptyElement instanceof Star && list.size() == 0) {
-            return false;
-        }
-
-        if (emptyElement instanceof Plus && list.size() == 1) {
-            return false;
-        }
-
-        return true;
-    }
-
-    private Stream<Term> combinations(TermList list) {
-        return IntStream.range(0, list.size()).mapToObj(exclude ->
-                without(list, exclude)
-        );
-    }
-
-    private TermList without(TermList list, int exclude) {
+    private TermList without(TermList list, int from, int to) {
         Term[] oldChildren = list.getChildren();
-        Term[] newChildren = ArrayUtils.remove(oldChildren, exclude);
+        Term[] newChildren = ArrayUtils.addAll(
+                ArrayUtils.subarray(oldChildren, 0, from),
+                ArrayUtils.subarray(oldChildren, to, oldChildren.length)
+        );
 
         return new TermList(list.getEmptyElement(), newChildren);
     }
 
-    private Term replace(Term term, Term subTree, Term replacement) {
-        if (term == subTree) {
-            return replacement;
-        }
-
-        if (term instanceof Text) {
-            return term;
-        }
-
-        Term[] children = Arrays
-                .stream(term.getChildren())
-                .map(child -> replace(child, subTree, replacement))
-                .toArray(Term[]::new);
-
-        if (term instanceof Appl) {
-            Appl appl = (Appl) term;
-
-            return new Appl(appl.getEmptyElement(), children);
-        } else if (term instanceof TermList) {
-            TermList list = (TermList) term;
+    // Appls and lists in post-order, collected in one pass over the term
+    private List<Location> subterms(Location location) {
+        List<Location> subterms = new ArrayList<>(location.getTerm().getTreeSize());
+        collect(location, subterms);
 
-            return new TermList(list.getEmptyElement(), children);
-        }
-
-        throw new IllegalArgumentException("Unexpected term (neither node nor leaf).");
-    }
-
-    private int size(Term subTerm) {
-        return 1 + Arrays
-                .stream(subTerm.getChildren())
-                .mapToInt(this::size)
-                .sum();
+        return subterms;
     }
 
-    private Stream<Term> subterms(Term term) {
-        if (term instanceof Text) {
-            return empty();
-        } else {
-            Stream<Term> children = Arrays.stream(term.getChildren());
+    private List<Location> descendants(Location location) {
+        List<Location> descendants = new ArrayList<>(location.getTerm().getTreeSize());
+        location.children().forEach(child -> collect(child, descendants));
 
-            return snoc(flatMap(children, this::subterms), term);
-        }
+        return descendants;
     }
 
-    private Stream<Term> descendants(Term term) {
-        Stream<Term> children = Arrays.stream(term.getChildren());
-
-        return flatMap(children, this::subterms);
+    private void collect(Location location, List<Location> subterms) {
+        if (!(location.getTerm() instanceof Text)) {
+            location.children().forEach(child -> collect(child, subterms));
+            subterms.add(location);
+        }
     }
 }
@@ -3,6 +3,7 @@ package org.metaborg.spg.sentence.antlr.shrinker;
 import com.google.inject.Inject;
 import org.metaborg.spg.sentence.antlr.generator.Generator;
 import org.metaborg.spg.sentence.antlr.grammar.Grammar;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 
 import java.util.Random;
 
@@ -15,6 +16,10 @@ public class ShrinkerFactory {
     }
 
     public Shrinker create(Generator generator, Grammar grammar) {
-        return new Shrinker(random, generator, grammar);
+        return create(generator, grammar, ListReduction.SINGLE);
+    }
+
+    public Shrinker create(Generator generator, Grammar grammar, ListReduction listReduction) {
+        return new Shrinker(random, generator, grammar, listReduction);
     }
 }
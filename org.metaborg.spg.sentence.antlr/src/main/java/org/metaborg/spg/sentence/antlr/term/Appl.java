@@ -5,10 +5,12 @@ import org.metaborg.spg.sentence.antlr.grammar.EmptyElement;
 public class Appl implements Term {
     private final EmptyElement emptyElement;
     private final Term[] children;
+    private final int treeSize;
 
     public Appl(EmptyElement emptyElement, Term[] children) {
         this.emptyElement = emptyElement;
         this.children = children;
+        this.treeSize = Term.getTreeSize(children);
     }
 
     public EmptyElement getEmptyElement() {
@@ -20,6 +22,11 @@ public class Appl implements Term {
         return children;
     }
 
+    @Override
+    public int getTreeSize() {
+        return treeSize;
+    }
+
     @Override
     public String toString() {
         return toString(true);
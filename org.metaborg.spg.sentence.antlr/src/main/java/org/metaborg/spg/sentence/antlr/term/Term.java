@@ -3,5 +3,18 @@ package org.metaborg.spg.sentence.antlr.term;
 public interface Term {
     Term[] getChildren();
 
+    // The number of nodes in the term, counted once when the term is constructed
+    int getTreeSize();
+
     String toString(boolean whitespace);
+
+    static int getTreeSize(Term[] children) {
+        int treeSize = 1;
+
+        for (Term child : children) {
+            treeSize += child.getTreeSize();
+        }
+
+        return treeSize;
+    }
 }
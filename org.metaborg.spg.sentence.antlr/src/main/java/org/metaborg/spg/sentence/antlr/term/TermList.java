@@ -5,10 +5,12 @@ import org.metaborg.spg.sentence.antlr.grammar.EmptyElement;
 public class TermList implements Term {
     private final EmptyElement emptyElement;
     private final Term[] children;
+    private final int treeSize;
 
     public TermList(EmptyElement emptyElement, Term[] children) {
         this.emptyElement = emptyElement;
         this.children = children;
+        this.treeSize = Term.getTreeSize(children);
     }
 
     public TermList(EmptyElement emptyElement) {
@@ -36,6 +38,11 @@ public class TermList implements Term {
         return children;
     }
 
+    @Override
+    public int getTreeSize() {
+        return treeSize;
+    }
+
     @Override
     public String toString() {
         return toString(true);
@@ -2,6 +2,8 @@ package org.metaborg.spg.sentence.antlr.term;
 
 public class Text implements Term {
     public static final Text EMPTY = new Text("");
+    private static final Term[] NO_CHILDREN = new Term[0];
+
     private final String text;
 
     public Text(String text) {
@@ -14,7 +16,12 @@ public class Text implements Term {
 
     @Override
     public Term[] getChildren() {
-        return new Term[0];
+        return NO_CHILDREN;
+    }
+
+    @Override
+    public int getTreeSize() {
+        return 1;
     }
 
     @Override
@@ -0,0 +1,64 @@
+package org.metaborg.spg.sentence.antlr.shrinker;
+
+import org.junit.Test;
+import org.metaborg.spg.sentence.antlr.grammar.Nonterminal;
+import org.metaborg.spg.sentence.antlr.grammar.Star;
+import org.metaborg.spg.sentence.antlr.term.Appl;
+import org.metaborg.spg.sentence.antlr.term.Term;
+import org.metaborg.spg.sentence.antlr.term.TermList;
+import org.metaborg.spg.sentence.antlr.term.Text;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LocationTest {
+    @Test
+    public void testReplaceRoot() {
+        Term term = term();
+        Text replacement = new Text("x");
+
+        assertThat(new Location(term).replace(replacement), is(sameInstance(replacement)));
+    }
+
+    @Test
+    public void testReplaceByPath() {
+        /*
+         * (1 (2 3)) with 3 replaced by x gives (1 (2 x))
+         */
+
+        Term term = term();
+        Location location = new Location(term).child(1).child(1);
+
+        Term replaced = location.replace(new Text("x"));
+
+        assertThat(replaced.toString(false), is("12x"));
+        assertThat(term.toString(false), is("123"));
+    }
+
+    @Test
+    public void testSharesOtherSubterms() {
+        Term term = term();
+        Term replaced = new Location(term).child(1).child(1).replace(new Text("x"));
+
+        assertThat(replaced.getChildren()[0], is(sameInstance(term.getChildren()[0])));
+        assertThat(replaced.getChildren()[1].getChildren()[0], is(sameInstance(term.getChildren()[1].getChildren()[0])));
+    }
+
+    @Test
+    public void testKeepsKindAndSize() {
+        Term term = term();
+        Term replaced = new Location(term).child(1).child(1).replace(new Appl(null, new Term[] { new Text("x") }));
+
+        assertThat(replaced instanceof Appl, is(true));
+        assertThat(replaced.getChildren()[1] instanceof TermList, is(true));
+        assertThat(replaced.getTreeSize(), is(term.getTreeSize() + 1));
+    }
+
+    private Term term() {
+        Star star = new Star(new Nonterminal("digit"));
+        TermList list = new TermList(star, new Term[] { new Text("2"), new Text("3") });
+
+        return new Appl(new Nonterminal("number"), new Term[] { new Text("1"), list });
+    }
+}
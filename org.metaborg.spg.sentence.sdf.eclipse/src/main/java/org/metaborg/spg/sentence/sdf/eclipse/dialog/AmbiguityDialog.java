@@ -5,6 +5,13 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.*;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
+import org.metaborg.spg.sentence.shared.generator.ListLength;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
+
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.SplittableRandom;
 
 public class AmbiguityDialog extends SentenceDialog {
     private static final String TITLE = "Ambiguity test";
@@ -12,12 +19,35 @@ public class AmbiguityDialog extends SentenceDialog {
 
     private static final String DEFAULT_MAX_NUMBER_OF_TERMS = "10000";
     private static final String DEFAULT_MAX_TERM_SIZE = "10000";
+    private static final String DEFAULT_THREADS = "1";
+    private static final boolean DEFAULT_PIPELINED = false;
+    private static final boolean DEFAULT_SMALLEST = false;
+    private static final String DEFAULT_REPLAY = "";
+    private static final GeneratorConfig.Selection DEFAULT_SELECTION = GeneratorConfig.Selection.UNIFORM;
+    private static final ListLength DEFAULT_LIST_LENGTH = ListLength.GEOMETRIC;
+    private static final ListReduction DEFAULT_LIST_REDUCTION = ListReduction.SINGLE;
 
     private Text txtMaxNumberOfTerms;
     private Text txtMaxTermSize;
+    private Text txtThreads;
+    private Button btnPipelined;
+    private Button btnSmallest;
+    private Text txtSeed;
+    private Text txtReplay;
+    private Combo cmbSelection;
+    private Combo cmbListLength;
+    private Combo cmbListReduction;
 
     private String maxNumberOfTerms;
     private String maxTermSize;
+    private String threads;
+    private boolean pipelined;
+    private boolean smallest;
+    private String seed;
+    private String replay;
+    private GeneratorConfig.Selection selection;
+    private ListLength listLength;
+    private ListReduction listReduction;
 
     public AmbiguityDialog(Shell parentShell) {
         super(parentShell);
@@ -42,6 +72,18 @@ public class AmbiguityDialog extends SentenceDialog {
 
         txtMaxNumberOfTerms = createField(group, "Max number of terms:", DEFAULT_MAX_NUMBER_OF_TERMS);
         txtMaxTermSize = createField(group, "Max term size:", DEFAULT_MAX_TERM_SIZE);
+        txtThreads = createField(group, "Threads:", DEFAULT_THREADS);
+        btnPipelined = createCheckbox(group, "Pipelined:", DEFAULT_PIPELINED);
+        btnSmallest = createCheckbox(group, "Smallest first:", DEFAULT_SMALLEST);
+
+        // A fresh seed per dialog, so runs differ, but can be repeated by entering the same seed
+        txtSeed = createField(group, "Seed:", Long.toString(new SplittableRandom().nextLong()));
+        txtReplay = createField(group, "Replay term index:", DEFAULT_REPLAY);
+        cmbSelection = createCombo(group, "Production selection:", names(GeneratorConfig.Selection.values()),
+                DEFAULT_SELECTION.ordinal());
+        cmbListLength = createCombo(group, "List length:", names(ListLength.values()), DEFAULT_LIST_LENGTH.ordinal());
+        cmbListReduction = createCombo(group, "Shrink lists by:", names(ListReduction.values()),
+                DEFAULT_LIST_REDUCTION.ordinal());
 
         return area;
     }
@@ -50,6 +92,14 @@ public class AmbiguityDialog extends SentenceDialog {
     protected void okPressed() {
         maxNumberOfTerms = txtMaxNumberOfTerms.getText();
         maxTermSize = txtMaxTermSize.getText();
+        threads = txtThreads.getText();
+        pipelined = btnPipelined.getSelection();
+        smallest = btnSmallest.getSelection();
+        seed = txtSeed.getText();
+        replay = txtReplay.getText().trim();
+        selection = GeneratorConfig.Selection.values()[cmbSelection.getSelectionIndex()];
+        listLength = ListLength.values()[cmbListLength.getSelectionIndex()];
+        listReduction = ListReduction.values()[cmbListReduction.getSelectionIndex()];
 
         super.okPressed();
     }
@@ -66,4 +116,44 @@ public class AmbiguityDialog extends SentenceDialog {
     public Integer getMaxTermSize() {
         return Integer.valueOf(maxTermSize);
     }
+
+    public Integer getThreads() {
+        return Integer.valueOf(threads);
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public boolean isSmallest() {
+        return smallest;
+    }
+
+    public long getSeed() {
+        return Long.valueOf(seed);
+    }
+
+    public OptionalInt getReplay() {
+        if (replay.isEmpty()) {
+            return OptionalInt.empty();
+        }
+
+        return OptionalInt.of(Integer.valueOf(replay));
+    }
+
+    public GeneratorConfig.Selection getSelection() {
+        return selection;
+    }
+
+    public ListLength getListLength() {
+        return listLength;
+    }
+
+    public ListReduction getListReduction() {
+        return listReduction;
+    }
+
+    private static String[] names(Enum<?>[] values) {
+        return Arrays.stream(values).map(value -> value.name().toLowerCase()).toArray(String[]::new);
+    }
 }
@@ -41,4 +41,15 @@ public abstract class SentenceDialog extends TitleAreaDialog {
 
         return button;
     }
+
+    protected Combo createCombo(Composite container, String fieldLabel, String[] items, int fieldDefault) {
+        Label label = new Label(container, SWT.NONE);
+        label.setText(fieldLabel);
+
+        Combo combo = new Combo(container, SWT.READ_ONLY);
+        combo.setItems(items);
+        combo.select(fieldDefault);
+
+        return combo;
+    }
 }
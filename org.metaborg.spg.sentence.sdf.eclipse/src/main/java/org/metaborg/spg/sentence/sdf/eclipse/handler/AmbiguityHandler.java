@@ -7,7 +7,9 @@ import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.window.Window;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.project.IProject;
+import org.metaborg.spg.sentence.ambiguity.PipelineConfig;
 import org.metaborg.spg.sentence.ambiguity.TesterConfig;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
 import org.metaborg.spg.sentence.sdf.eclipse.dialog.AmbiguityDialog;
 import org.metaborg.spg.sentence.sdf.eclipse.exception.LanguageNotFoundException;
 import org.metaborg.spg.sentence.sdf.eclipse.exception.ProjectNotFoundException;
@@ -25,7 +27,9 @@ public class AmbiguityHandler extends SentenceHandler {
             if (ambiguityDialog.open() == Window.OK) {
                 JobFactory jobFactory = injector.getInstance(JobFactory.class);
 
-                Job job = jobFactory.createAmbiguityJob(getConfig(ambiguityDialog), project, languageImpl);
+                Job job = jobFactory.createAmbiguityJob(getConfig(ambiguityDialog),
+                        getGeneratorConfig(ambiguityDialog), ambiguityDialog.getListReduction(), ambiguityDialog.getSeed(),
+                        ambiguityDialog.getReplay(), project, languageImpl);
                 job.setPriority(Job.SHORT);
                 job.setUser(true);
                 job.schedule();
@@ -42,7 +46,21 @@ public class AmbiguityHandler extends SentenceHandler {
     private TesterConfig getConfig(AmbiguityDialog generateDialog) {
         int maxNumberOfTerms = generateDialog.getMaxNumberOfTerms();
         int maxTermSize = generateDialog.getMaxTermSize();
+        int threads = generateDialog.getThreads();
 
-        return new TesterConfig(maxNumberOfTerms, maxTermSize);
+        if (generateDialog.isSmallest()) {
+            return new TesterConfig(maxNumberOfTerms, maxTermSize, true);
+        }
+
+        if (generateDialog.isPipelined()) {
+            return new TesterConfig(maxNumberOfTerms, maxTermSize, new PipelineConfig(threads));
+        }
+
+        return new TesterConfig(maxNumberOfTerms, maxTermSize, threads);
+    }
+
+    private GeneratorConfig getGeneratorConfig(AmbiguityDialog generateDialog) {
+        return new GeneratorConfig(GeneratorConfig.Engine.UNIFORM, 0,
+                generateDialog.getListLength().strategy(), generateDialog.getSelection());
     }
 }
@@ -4,6 +4,7 @@ import static org.metaborg.spg.sentence.shared.utils.SpoofaxUtils.getLanguage;
 
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.OptionalInt;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -21,7 +22,10 @@ import org.metaborg.spg.sentence.ambiguity.TesterFactory;
 import org.metaborg.spg.sentence.ambiguity.result.FindResult;
 import org.metaborg.spg.sentence.ambiguity.result.ShrinkResult;
 import org.metaborg.spg.sentence.ambiguity.result.TestResult;
+import org.metaborg.spg.sentence.ambiguity.result.WorkerStatistics;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
 import org.metaborg.spg.sentence.sdf.eclipse.Activator;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spg.sentence.statistics.Histogram;
 import org.metaborg.spoofax.core.SpoofaxConstants;
 import org.metaborg.spoofax.eclipse.SpoofaxPlugin;
@@ -34,6 +38,10 @@ public class AmbiguityJob extends SentenceJob {
 
     private final TesterFactory testerFactory;
     private final TesterConfig config;
+    private final GeneratorConfig generatorConfig;
+    private final ListReduction listReduction;
+    private final long seed;
+    private final OptionalInt replay;
     private final IProject project;
     private final ILanguageImpl language;
     private final ILanguageImpl templateLanguage;
@@ -42,12 +50,20 @@ public class AmbiguityJob extends SentenceJob {
     public AmbiguityJob(
             TesterFactory testerFactory,
             @Assisted TesterConfig config,
+            @Assisted GeneratorConfig generatorConfig,
+            @Assisted ListReduction listReduction,
+            @Assisted long seed,
+            @Assisted OptionalInt replay,
             @Assisted IProject project,
             @Assisted ILanguageImpl language) throws MetaborgException {
         super("Ambiguity test");
 
         this.testerFactory = testerFactory;
         this.config = config;
+        this.generatorConfig = generatorConfig;
+        this.listReduction = listReduction;
+        this.seed = seed;
+        this.replay = replay;
         this.project = project;
         this.language = language;
         this.templateLanguage = getLanguage(SpoofaxPlugin.spoofax(), SpoofaxConstants.LANG_SDF3_NAME);
@@ -58,7 +74,8 @@ public class AmbiguityJob extends SentenceJob {
         try {
             final SubMonitor subMonitor = SubMonitor.convert(monitor, config.getMaxNumberOfTerms());
 
-            Tester tester = testerFactory.create(templateLanguage, language, project);
+            Tester tester = testerFactory.create(templateLanguage, language, project, generatorConfig,
+                    listReduction, seed);
 
             StatisticsTesterProgress progress = new StatisticsTesterProgress() {
                 @Override
@@ -88,26 +105,42 @@ public class AmbiguityJob extends SentenceJob {
                 }
             };
 
-            TestResult testResult = tester.test(config, progress);
+            // A replay tests the single term with the given index of a run with the same seed
+            TestResult testResult = replay.isPresent()
+                    ? tester.replay(tester.getTermSeed(replay.getAsInt()), config, progress)
+                    : tester.test(config, progress);
             FindResult findResult = testResult.getFindResult();
             ShrinkResult shrinkResult = testResult.getShrinkResult();
 
             if (findResult.found()) {
-                print("Found ambiguous sentence after %s terms (%s ms). ",
-                        numberFormat.format(findResult.terms()),
-                        numberFormat.format(findResult.duration()));
+                if (replay.isPresent()) {
+                    print("Replayed term %s is ambiguous (%s ms). ",
+                            numberFormat.format(replay.getAsInt()),
+                            numberFormat.format(findResult.duration()));
+                } else {
+                    print("Found ambiguous sentence after %s terms (%s ms). ",
+                            numberFormat.format(findResult.terms()),
+                            numberFormat.format(findResult.duration()));
+                }
 
                 if (shrinkResult != null) {
                     if (shrinkResult.success()) {
-                        print("Shrunk from %s to %s characters (%s ms).\n\n",
+                        print("Shrunk from %s to %s characters (%s ms, %s steps, %s candidates, %s wasted).\n\n",
                                 numberFormat.format(findResult.text().length()),
                                 numberFormat.format(shrinkResult.text().length()),
-                                numberFormat.format(shrinkResult.duration()));
+                                numberFormat.format(shrinkResult.duration()),
+                                numberFormat.format(shrinkResult.steps().size()),
+                                numberFormat.format(shrinkResult.evaluated()),
+                                numberFormat.format(shrinkResult.wasted()));
                     } else {
                         print("Unable to shrink (%s ms).\n\n",
                                 numberFormat.format(shrinkResult.duration()));
                     }
                 }
+            } else if (replay.isPresent()) {
+                print("Replayed term %s is not ambiguous (%s ms).\n\n",
+                        numberFormat.format(replay.getAsInt()),
+                        numberFormat.format(findResult.duration()));
             } else {
                 print("No ambiguous sentence found after %s terms (%s ms).\n\n",
                         numberFormat.format(findResult.terms()),
@@ -115,7 +148,34 @@ public class AmbiguityJob extends SentenceJob {
             }
 
             print("### Statistics ###\n");
+            print("Seed: %d\n", seed);
+
+            if (findResult.seed() != null) {
+                print("Term seed: %016x\n", findResult.seed());
+            }
+
             print("%s", new Histogram(progress.getLengths()));
+            print("%s", tester.getCoverageStatistics());
+
+            if (findResult.dedup() != null) {
+                print("%s", findResult.dedup());
+            }
+
+            print("%s", tester.getParseCacheStatistics());
+            print("%s", tester.getPrinterPoolStatistics());
+
+            if (findResult.workers().size() > 1) {
+                for (WorkerStatistics worker : findResult.workers()) {
+                    print("Worker %d: %s terms (%s terms/s)\n",
+                            worker.worker(),
+                            numberFormat.format(worker.terms()),
+                            numberFormat.format(worker.throughput()));
+                }
+            }
+
+            if (progress.getPipelineStatistics() != null) {
+                print("%s", progress.getPipelineStatistics());
+            }
 
             return Status.OK_STATUS;
         } catch (Exception e) {
@@ -3,7 +3,12 @@ package org.metaborg.spg.sentence.sdf.eclipse.job;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.project.IProject;
 import org.metaborg.spg.sentence.ambiguity.TesterConfig;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
+
+import java.util.OptionalInt;
 
 public interface JobFactory {
-    AmbiguityJob createAmbiguityJob(TesterConfig config, IProject project, ILanguageImpl language);
+    AmbiguityJob createAmbiguityJob(TesterConfig config, GeneratorConfig generatorConfig,
+            ListReduction listReduction, long seed, OptionalInt replay, IProject project, ILanguageImpl language);
 }
@@ -3,6 +3,7 @@ package org.metaborg.spg.sentence;
 import org.metaborg.core.MetaborgException;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.project.IProject;
+import org.metaborg.spg.sentence.ambiguity.PipelineConfig;
 import org.metaborg.spg.sentence.ambiguity.Tester;
 import org.metaborg.spg.sentence.ambiguity.TesterConfig;
 import org.metaborg.spg.sentence.ambiguity.TesterFactory;
@@ -10,7 +11,11 @@ import org.metaborg.spg.sentence.ambiguity.TesterProgressDefault;
 import org.metaborg.spg.sentence.ambiguity.result.FindResult;
 import org.metaborg.spg.sentence.ambiguity.result.ShrinkResult;
 import org.metaborg.spg.sentence.ambiguity.result.TestResult;
+import org.metaborg.spg.sentence.ambiguity.result.WorkerStatistics;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
 import org.metaborg.spg.sentence.guice.SentenceModule;
+import org.metaborg.spg.sentence.shared.generator.ListLength;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spg.sentence.statistics.Histogram;
 import org.metaborg.spoofax.core.Spoofax;
 import org.metaborg.spoofax.core.SpoofaxConstants;
@@ -18,10 +23,43 @@ import org.metaborg.spoofax.core.shell.CLIUtils;
 
 import com.google.inject.Injector;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
 public class Main {
+    private static final String PIPELINE = "--pipeline";
+    private static final String SMALLEST = "--smallest";
+    private static final String SEED = "--seed";
+    private static final String REPLAY = "--replay";
+    private static final String TERM_SEED = "--term-seed";
+    private static final String SELECTION = "--selection";
+    private static final String LIST_LENGTH = "--list-length";
+    private static final String LIST_REDUCTION = "--list-reduction";
+
+    // Usage: <language> <project> [threads] [boltzmann size] [--pipeline | --smallest] [--seed=<seed>]
+    //        [--replay=<index> | --term-seed=<hex>] [--selection=uniform|coverage|adaptive]
+    //        [--list-length=geometric|uniform|poisson|proportional] [--list-reduction=single|ddmin]
+    public static void main(String[] arguments) throws Exception {
+        List<String> options = Arrays.stream(arguments).filter(argument -> argument.startsWith("--")).collect(toList());
+        String[] args = Arrays.stream(arguments).filter(argument -> !argument.startsWith("--")).toArray(String[]::new);
 
-    public static void main(String[] args) throws Exception {
-        try(final Spoofax spoofax = new Spoofax(new SentenceModule(0))) {
+        long seed = option(options, SEED).map(Long::valueOf).orElse(0L);
+        Optional<Integer> replay = option(options, REPLAY).map(Integer::valueOf);
+        Optional<Long> termSeed = option(options, TERM_SEED).map(value -> Long.parseUnsignedLong(value, 16));
+        GeneratorConfig.Selection selection = option(options, SELECTION)
+                .map(value -> GeneratorConfig.Selection.valueOf(value.toUpperCase()))
+                .orElse(GeneratorConfig.Selection.UNIFORM);
+        ListLength listLength = option(options, LIST_LENGTH)
+                .map(value -> ListLength.valueOf(value.toUpperCase()))
+                .orElse(ListLength.GEOMETRIC);
+        ListReduction listReduction = option(options, LIST_REDUCTION)
+                .map(value -> ListReduction.valueOf(value.toUpperCase()))
+                .orElse(ListReduction.SINGLE);
+
+        try(final Spoofax spoofax = new Spoofax(new SentenceModule(seed))) {
             final CLIUtils cli = new CLIUtils(spoofax);
             cli.loadLanguagesFromPath();
             final ILanguageImpl templateLanguage = cli.getLanguage(SpoofaxConstants.LANG_SDF3_NAME);
@@ -30,26 +68,65 @@ public class Main {
 
             int maxNumberOfTerms = 1000;
             int maxTermSize = 10000;
+            int threads = args.length > 2 ? Integer.valueOf(args[2]) : 1;
+            GeneratorConfig generatorConfig = args.length > 3
+                ? new GeneratorConfig(GeneratorConfig.Engine.BOLTZMANN, Integer.valueOf(args[3]),
+                        listLength.strategy(), selection)
+                : new GeneratorConfig(GeneratorConfig.Engine.UNIFORM, 0, listLength.strategy(), selection);
 
             Injector injector = spoofax.injector;
             TesterFactory testerFactory = injector.getInstance(TesterFactory.class);
-            Tester tester = testerFactory.create(templateLanguage, language, project);
+            Tester tester = testerFactory.create(templateLanguage, language, project, generatorConfig, listReduction);
             TesterProgressDefault progress = new TesterProgressDefault();
-            TesterConfig config = new TesterConfig(maxNumberOfTerms, maxTermSize);
+            TesterConfig config;
+
+            if(options.contains(SMALLEST)) {
+                config = new TesterConfig(maxNumberOfTerms, maxTermSize, true);
+            } else if(options.contains(PIPELINE)) {
+                config = new TesterConfig(maxNumberOfTerms, maxTermSize, new PipelineConfig(threads));
+            } else {
+                config = new TesterConfig(maxNumberOfTerms, maxTermSize, threads);
+            }
+
+            // A replay tests the single term with the given index or term seed, e.g. to reproduce a find of another run
+            boolean replaying = replay.isPresent() || termSeed.isPresent();
+            TestResult result;
+
+            if(termSeed.isPresent()) {
+                result = tester.replay(termSeed.get(), config, progress);
+            } else if(replay.isPresent()) {
+                result = tester.replay(tester.getTermSeed(replay.get()), config, progress);
+            } else {
+                result = tester.test(config, progress);
+            }
 
-            TestResult result = tester.test(config, progress);
             FindResult findResult = result.getFindResult();
             ShrinkResult shrinkResult = result.getShrinkResult();
 
             if(findResult.found()) {
-                print("Found ambiguous sentence after %d terms (%d ms). ", findResult.terms(), findResult.duration());
+                if(replaying) {
+                    print("Replayed term is ambiguous (%d ms, term seed %016x). ", findResult.duration(),
+                            findResult.seed());
+                } else {
+                    print("Found ambiguous sentence after %d terms (%d ms). ", findResult.terms(),
+                            findResult.duration());
+
+                    // Only a generated term has a seed; an enumerated term is found again by its index
+                    if(findResult.seed() != null) {
+                        print("Term seed %016x. ", findResult.seed());
+                    }
+                }
 
                 if(shrinkResult != null) {
-                    print("Shrunk from %d to %d characters (%d ms).\n\n", findResult.text().length(),
-                            shrinkResult.text().length(), shrinkResult.duration());
+                    print("Shrunk from %d to %d characters (%d ms, %d steps, %d nodes removed, %d candidates, "
+                            + "%d wasted).\n\n", findResult.text().length(), shrinkResult.text().length(),
+                            shrinkResult.duration(), shrinkResult.steps().size(), shrinkResult.reduction(),
+                            shrinkResult.evaluated(), shrinkResult.wasted());
                 } else {
                     print("Unable to shrink.\n\n");
                 }
+            } else if(replaying) {
+                print("Replayed term is not ambiguous (%d ms).\n\n", findResult.duration());
             } else {
                 print("No ambiguous sentence found after %d terms (%d ms).\n\n", findResult.terms(),
                         findResult.duration());
@@ -57,11 +134,36 @@ public class Main {
 
             print("### Statistics ###\n");
             print("%s", new Histogram(progress.getLengths()));
+            print("%s", tester.getCoverageStatistics());
+
+            if(findResult.dedup() != null) {
+                print("%s", findResult.dedup());
+            }
+
+            print("%s", tester.getParseCacheStatistics());
+            print("%s", tester.getPrinterPoolStatistics());
+
+            if(findResult.workers().size() > 1) {
+                for(WorkerStatistics worker : findResult.workers()) {
+                    print("Worker %d: %d terms (%.1f terms/s)\n", worker.worker(), worker.terms(), worker.throughput());
+                }
+            }
+
+            if(progress.getPipelineStatistics() != null) {
+                print("%s", progress.getPipelineStatistics());
+            }
         } catch(MetaborgException e) {
             e.printStackTrace();
         }
     }
 
+    private static Optional<String> option(List<String> options, String name) {
+        return options.stream()
+                .filter(option -> option.startsWith(name + "="))
+                .map(option -> option.substring(name.length() + 1))
+                .findFirst();
+    }
+
     private static void print(String format, Object... arguments) {
         System.out.print(String.format(format, arguments));
     }
@@ -0,0 +1,114 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.ambiguity.result.DedupStatistics;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoList;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers fingerprints of the terms and sentences seen during a find, so that a term that was generated before is
+ * not printed again and a sentence that was printed before is not parsed again.
+ *
+ * A duplicate is only skipped if it was seen with a lower index. When workers reach the same term out of order, the
+ * term with the lower index is still tested, so the index that a parallel find reports does not depend on timing.
+ */
+class Deduplicator {
+    private static final long PRIME = 0x100000001b3L;
+    private static final long OFFSET = 0xcbf29ce484222325L;
+
+    private final FingerprintSet terms;
+    private final FingerprintSet texts;
+    private final LongAdder termLookups;
+    private final LongAdder termHits;
+    private final LongAdder textLookups;
+    private final LongAdder textHits;
+
+    public Deduplicator(int maxNumberOfTerms) {
+        int capacity = (int) Math.min(FingerprintSet.MAXIMUM_CAPACITY, 2L * maxNumberOfTerms);
+
+        this.terms = new FingerprintSet(capacity);
+        this.texts = new FingerprintSet(capacity);
+        this.termLookups = new LongAdder();
+        this.termHits = new LongAdder();
+        this.textLookups = new LongAdder();
+        this.textHits = new LongAdder();
+    }
+
+    public boolean seen(IStrategoTerm term, int index) {
+        termLookups.increment();
+
+        if (terms.add(mix(fingerprint(term)), index)) {
+            return false;
+        }
+
+        termHits.increment();
+
+        return true;
+    }
+
+    public boolean seen(String text, int index) {
+        textLookups.increment();
+
+        if (texts.add(fingerprint(text), index)) {
+            return false;
+        }
+
+        textHits.increment();
+
+        return true;
+    }
+
+    public DedupStatistics statistics() {
+        return new DedupStatistics(termLookups.sum(), termHits.sum(), textLookups.sum(), textHits.sum(),
+                terms.dropped() + texts.dropped());
+    }
+
+    // Includes the symbol, so that equal trees generated from different sorts are told apart
+    private long fingerprint(IStrategoTerm term) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+        long hash = OFFSET;
+
+        if (attachment != null) {
+            hash = (hash ^ attachment.getSymbol().hashCode()) * PRIME;
+        }
+
+        if (term instanceof IStrategoAppl) {
+            hash = fingerprint(hash, ((IStrategoAppl) term).getConstructor().getName());
+        } else if (term instanceof IStrategoString) {
+            hash = fingerprint(hash, ((IStrategoString) term).stringValue());
+        } else if (term instanceof IStrategoList) {
+            hash = (hash ^ '[') * PRIME;
+        } else {
+            hash = (hash ^ term.hashCode()) * PRIME;
+        }
+
+        for (IStrategoTerm subterm : term.getAllSubterms()) {
+            hash = (hash ^ mix(fingerprint(subterm))) * PRIME;
+        }
+
+        return (hash ^ term.getSubtermCount()) * PRIME;
+    }
+
+    static long fingerprint(String text) {
+        return mix(fingerprint(OFFSET, text));
+    }
+
+    private static long fingerprint(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * PRIME;
+        }
+
+        return (hash ^ text.length()) * PRIME;
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,63 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.generator.SelectionFeedback;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * The ambiguous term with the lowest index found so far by any of the find workers.
+ *
+ * Workers keep searching below the current index, so the term that is eventually committed is the same one a
+ * sequential search over the same per-worker random streams would find. Workers waiting for the selection weights of
+ * an index above the candidate are released, as that index is never needed.
+ */
+class FindCandidate {
+    private final SelectionFeedback feedback;
+    private int index = Integer.MAX_VALUE;
+    private IStrategoTerm term;
+    private String text;
+    private volatile boolean cancelled;
+
+    public FindCandidate(SelectionFeedback feedback) {
+        this.feedback = feedback;
+    }
+
+    public synchronized void offer(int index, IStrategoTerm term, String text) {
+        if (index < this.index) {
+            this.index = index;
+            this.term = term;
+            this.text = text;
+
+            feedback.stopAfter(index);
+        }
+    }
+
+    public synchronized boolean isBefore(int index) {
+        return index < this.index;
+    }
+
+    public synchronized int index() {
+        return index;
+    }
+
+    public synchronized IStrategoTerm term() {
+        return term;
+    }
+
+    public synchronized String text() {
+        return text;
+    }
+
+    public synchronized boolean found() {
+        return term != null;
+    }
+
+    public void cancel() {
+        cancelled = true;
+
+        feedback.stopAfter(-1);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
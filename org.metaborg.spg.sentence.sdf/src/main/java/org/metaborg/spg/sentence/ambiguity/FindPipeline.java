@@ -0,0 +1,282 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.ambiguity.result.FindResult;
+import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.printer.PrinterPool;
+import org.metaborg.spg.sentence.printer.PrinterRuntimeException;
+import org.metaborg.spg.sentence.statistics.PipelineStatistics;
+import org.metaborg.spg.sentence.statistics.StageStatistics;
+import org.metaborg.util.time.Timer;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs generation, printing and parsing as separate stages connected by bounded queues.
+ *
+ * A full queue blocks the stage that feeds it, so the time each stage spends blocked, starved or busy tells which
+ * stage needs more threads.
+ *
+ * Once an ambiguous term is found, the stages stop taking new indices but finish the lower indices that are still in
+ * the queues, so the reported term is the one with the lowest index, as in a sequential find.
+ */
+class FindPipeline {
+    private static final Item END = new Item(-1, null, null);
+
+    private final Tester tester;
+    private final List<Generator> generators;
+    private final PrinterPool printerPool;
+    private final int printers;
+    private final TesterConfig config;
+    private final TesterProgress progress;
+    private final Deduplicator deduplicator;
+    private final int parsers;
+    private final BlockingQueue<Item> terms;
+    private final BlockingQueue<Item> texts;
+    private final StageStatistics generateStatistics;
+    private final StageStatistics printStatistics;
+    private final StageStatistics parseStatistics;
+    private final PipelineStatistics statistics;
+    private final AtomicInteger next;
+    private final AtomicInteger runningGenerators;
+    private final AtomicInteger runningPrinters;
+    private final FindCandidate candidate;
+    private final ExecutorService executor;
+    private volatile boolean stopped;
+
+    public FindPipeline(
+            Tester tester,
+            List<Generator> generators,
+            PrinterPool printerPool,
+            TesterConfig config,
+            TesterProgress progress,
+            Deduplicator deduplicator
+    ) {
+        PipelineConfig pipelineConfig = config.getPipelineConfig();
+
+        this.tester = tester;
+        this.generators = generators;
+        this.printerPool = printerPool;
+        this.printers = pipelineConfig.getPrinterThreads();
+        this.config = config;
+        this.progress = progress;
+        this.deduplicator = deduplicator;
+        this.parsers = pipelineConfig.getParserThreads();
+        this.terms = new ArrayBlockingQueue<>(pipelineConfig.getQueueCapacity());
+        this.texts = new ArrayBlockingQueue<>(pipelineConfig.getQueueCapacity());
+        this.generateStatistics = new StageStatistics("generate", generators.size(), terms);
+        this.printStatistics = new StageStatistics("print", printers, texts);
+        this.parseStatistics = new StageStatistics("parse", parsers, null);
+        this.statistics = new PipelineStatistics(Arrays.asList(generateStatistics, printStatistics, parseStatistics));
+        this.next = new AtomicInteger();
+        this.runningGenerators = new AtomicInteger(generators.size());
+        this.runningPrinters = new AtomicInteger(printers);
+        this.candidate = new FindCandidate(tester.getFeedback());
+        this.executor = Executors.newFixedThreadPool(generators.size() + printers + parsers);
+    }
+
+    public FindResult run() {
+        Timer timer = new Timer(true);
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+
+        for (Generator generator : generators) {
+            completionService.submit(task(() -> generate(generator)));
+        }
+
+        for (int i = 0; i < printers; i++) {
+            completionService.submit(task(this::print));
+        }
+
+        for (int i = 0; i < parsers; i++) {
+            completionService.submit(task(this::parse));
+        }
+
+        RuntimeException failure = null;
+
+        try {
+            for (int i = 0; i < generators.size() + printers + parsers; i++) {
+                try {
+                    completionService.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof TesterCancelledException) {
+                        candidate.cancel();
+                    } else if (!(e.getCause() instanceof InterruptedException) && failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause()
+                                : new RuntimeException(e.getCause());
+                    }
+
+                    stop();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            candidate.cancel();
+        } finally {
+            stop();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        synchronized (progress) {
+            progress.pipelineUpdated(statistics);
+        }
+
+        if (candidate.found()) {
+            return new FindResult(timer, candidate.index(), candidate.term(), candidate.text());
+        }
+
+        return new FindResult(timer, Math.min(next.get(), config.getMaxNumberOfTerms()));
+    }
+
+    private void generate(Generator generator) throws InterruptedException {
+        int index;
+
+        while (!stopped && (index = next.getAndIncrement()) < config.getMaxNumberOfTerms()) {
+            if (!candidate.isBefore(index)) {
+                break;
+            }
+
+            long start = System.nanoTime();
+            Optional<IStrategoTerm> termOpt = generator.generate(index, config.getMaxTermSize());
+            generateStatistics.processed(System.nanoTime() - start);
+
+            if (termOpt.isPresent()) {
+                put(terms, new Item(index, termOpt.get(), null), generateStatistics);
+            } else {
+                tester.getFeedback().tested(index);
+            }
+        }
+
+        if (runningGenerators.decrementAndGet() == 0 && !stopped) {
+            for (int i = 0; i < printers; i++) {
+                put(terms, END, generateStatistics);
+            }
+        }
+    }
+
+    private void print() throws InterruptedException {
+        while (!stopped) {
+            Item item = take(terms, printStatistics);
+
+            if (item == END) {
+                break;
+            }
+
+            if (!candidate.isBefore(item.index) || deduplicator.seen(item.term, item.index)) {
+                tester.getFeedback().tested(item.index);
+
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                String text = printerPool.print(item.term);
+                printStatistics.processed(System.nanoTime() - start);
+
+                put(texts, new Item(item.index, item.term, text), printStatistics);
+            } catch (PrinterRuntimeException e) {
+                e.printStackTrace();
+
+                tester.getFeedback().tested(item.index);
+            }
+        }
+
+        if (runningPrinters.decrementAndGet() == 0 && !stopped) {
+            for (int i = 0; i < parsers; i++) {
+                put(texts, END, printStatistics);
+            }
+        }
+    }
+
+    private void parse() throws InterruptedException {
+        while (!stopped) {
+            Item item = take(texts, parseStatistics);
+
+            if (item == END) {
+                break;
+            }
+
+            try {
+                if (!candidate.isBefore(item.index)) {
+                    continue;
+                }
+
+                synchronized (progress) {
+                    progress.sentenceGenerated(item.text);
+                    progress.pipelineUpdated(statistics);
+                }
+
+                if (deduplicator.seen(item.text, item.index)) {
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                boolean ambiguous = tester.isAmbiguous(item.index, item.term, item.text);
+                parseStatistics.processed(System.nanoTime() - start);
+
+                if (ambiguous) {
+                    candidate.offer(item.index, item.term, item.text);
+                }
+            } finally {
+                tester.getFeedback().tested(item.index);
+            }
+        }
+    }
+
+    private void put(BlockingQueue<Item> queue, Item item, StageStatistics stage) throws InterruptedException {
+        long start = System.nanoTime();
+        queue.put(item);
+        stage.blocked(System.nanoTime() - start);
+    }
+
+    private Item take(BlockingQueue<Item> queue, StageStatistics stage) throws InterruptedException {
+        long start = System.nanoTime();
+        Item item = queue.take();
+        stage.starved(System.nanoTime() - start);
+
+        return item;
+    }
+
+    private void stop() {
+        stopped = true;
+        executor.shutdownNow();
+    }
+
+    private Callable<Void> task(Stage stage) {
+        return () -> {
+            stage.run();
+
+            return null;
+        };
+    }
+
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    private static class Item {
+        private final int index;
+        private final IStrategoTerm term;
+        private final String text;
+
+        public Item(int index, IStrategoTerm term, String text) {
+            this.index = index;
+            this.term = term;
+            this.text = text;
+        }
+    }
+}
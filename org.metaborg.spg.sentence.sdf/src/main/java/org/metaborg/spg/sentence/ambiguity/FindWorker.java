@@ -0,0 +1,92 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.ambiguity.result.WorkerStatistics;
+import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.printer.PrinterPool;
+import org.metaborg.spg.sentence.printer.PrinterRuntimeException;
+import org.metaborg.util.time.Timer;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates, prints and parses every term whose index is congruent to the worker index modulo the number of workers.
+ */
+class FindWorker implements Callable<WorkerStatistics> {
+    private final Tester tester;
+    private final Generator generator;
+    private final PrinterPool printerPool;
+    private final TesterConfig config;
+    private final TesterProgress progress;
+    private final Deduplicator deduplicator;
+    private final FindCandidate candidate;
+    private final int worker;
+    private final int workers;
+
+    public FindWorker(
+            Tester tester,
+            Generator generator,
+            PrinterPool printerPool,
+            TesterConfig config,
+            TesterProgress progress,
+            Deduplicator deduplicator,
+            FindCandidate candidate,
+            int worker,
+            int workers
+    ) {
+        this.tester = tester;
+        this.generator = generator;
+        this.printerPool = printerPool;
+        this.config = config;
+        this.progress = progress;
+        this.deduplicator = deduplicator;
+        this.candidate = candidate;
+        this.worker = worker;
+        this.workers = workers;
+    }
+
+    @Override
+    public WorkerStatistics call() {
+        Timer timer = new Timer(true);
+
+        int terms = 0;
+
+        for (int i = worker; i < config.getMaxNumberOfTerms(); i += workers) {
+            if (candidate.isCancelled() || !candidate.isBefore(i)) {
+                break;
+            }
+
+            terms++;
+
+            try {
+                Optional<IStrategoTerm> termOpt = generator.generate(i, config.getMaxTermSize());
+
+                if (termOpt.isPresent() && !deduplicator.seen(termOpt.get(), i)) {
+                    IStrategoTerm term = termOpt.get();
+                    String text = printerPool.print(term);
+
+                    synchronized (progress) {
+                        progress.sentenceGenerated(text);
+                    }
+
+                    if (!deduplicator.seen(text, i) && tester.isAmbiguous(i, term, text)) {
+                        candidate.offer(i, term, text);
+
+                        break;
+                    }
+                }
+            } catch (TesterCancelledException e) {
+                candidate.cancel();
+
+                break;
+            } catch (PrinterRuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                generator.getFeedback().tested(i);
+            }
+        }
+
+        return new WorkerStatistics(worker, terms, timer.stop());
+    }
+}
@@ -0,0 +1,128 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+/**
+ * A set of 64-bit fingerprints in an open-addressing table, each with the lowest index it was added with.
+ *
+ * The table doubles whenever it is three quarters full, until it can hold {@link #MAXIMUM_CAPACITY} fingerprints.
+ * Once that table is full, new fingerprints are no longer recorded but counted as dropped, so memory stays bounded and
+ * unrecorded fingerprints are simply treated as unseen.
+ */
+class FingerprintSet {
+    public static final int MAXIMUM_CAPACITY = 1 << 22;
+
+    private static final long EMPTY = 0;
+
+    private long[] table;
+    private int[] indices;
+    private int mask;
+    private int limit;
+    private int size;
+    private long dropped;
+
+    public FingerprintSet(int capacity) {
+        allocate(length(Math.min(capacity, MAXIMUM_CAPACITY)));
+    }
+
+    // Returns whether the fingerprint was not in the set yet
+    public boolean add(long fingerprint) {
+        return add(fingerprint, 0);
+    }
+
+    // Returns whether the fingerprint was not in the set yet with an index lower than the given index
+    public synchronized boolean add(long fingerprint, int index) {
+        int slot = slot(fingerprint);
+
+        if (table[slot] != EMPTY) {
+            if (index < indices[slot]) {
+                indices[slot] = index;
+
+                return true;
+            }
+
+            return false;
+        }
+
+        if (size == limit && !grow()) {
+            dropped++;
+
+            return true;
+        }
+
+        insert(fingerprint == EMPTY ? 1 : fingerprint, index);
+
+        return true;
+    }
+
+    public synchronized boolean contains(long fingerprint) {
+        return table[slot(fingerprint)] != EMPTY;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    // The slot that holds the fingerprint, or the empty slot where it would be inserted
+    private int slot(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            fingerprint = 1;
+        }
+
+        int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+
+        while (table[slot] != EMPTY && table[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void insert(long fingerprint, int index) {
+        int slot = slot(fingerprint);
+
+        table[slot] = fingerprint;
+        indices[slot] = index;
+        size++;
+    }
+
+    private boolean grow() {
+        if (limit >= MAXIMUM_CAPACITY) {
+            return false;
+        }
+
+        long[] oldTable = table;
+        int[] oldIndices = indices;
+
+        allocate(table.length << 1);
+
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != EMPTY) {
+                insert(oldTable[i], oldIndices[i]);
+            }
+        }
+
+        return true;
+    }
+
+    private void allocate(int length) {
+        this.table = new long[length];
+        this.indices = new int[length];
+        this.mask = length - 1;
+        this.limit = length / 4 * 3;
+        this.size = 0;
+    }
+
+    // The smallest power of two of which three quarters holds the capacity
+    private static int length(int capacity) {
+        int length = 16;
+
+        while (length / 4 * 3 < capacity) {
+            length <<= 1;
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,67 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.ambiguity.result.ParseCacheStatistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded least-recently-used cache from sentence text to the verdict of parsing it.
+ */
+class ParseCache {
+    private final int capacity;
+    private final Map<String, Verdict> verdicts;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public ParseCache(int capacity) {
+        this.capacity = capacity;
+        this.verdicts = new LinkedHashMap<String, Verdict>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+                return size() > ParseCache.this.capacity;
+            }
+        };
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    public Verdict get(String text) {
+        Verdict verdict;
+
+        synchronized (verdicts) {
+            verdict = verdicts.get(text);
+        }
+
+        if (verdict == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return verdict;
+    }
+
+    public void put(String text, Verdict verdict) {
+        synchronized (verdicts) {
+            verdicts.put(text, verdict);
+        }
+    }
+
+    public ParseCacheStatistics statistics() {
+        int size;
+
+        synchronized (verdicts) {
+            size = verdicts.size();
+        }
+
+        return new ParseCacheStatistics(hits.sum(), misses.sum(), size, capacity);
+    }
+
+    enum Verdict {
+        AMBIGUOUS,
+        UNAMBIGUOUS,
+        FAILED
+    }
+}
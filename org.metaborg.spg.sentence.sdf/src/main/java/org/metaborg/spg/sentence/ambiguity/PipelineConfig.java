@@ -0,0 +1,46 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+public class PipelineConfig {
+    private static final int QUEUE_CAPACITY_PER_THREAD = 16;
+
+    private final int generatorThreads;
+    private final int printerThreads;
+    private final int parserThreads;
+    private final int queueCapacity;
+
+    // Generating is cheap compared to printing and parsing, so a single generator thread feeds the other stages
+    public PipelineConfig(int threads) {
+        this(1, threads, threads, threads * QUEUE_CAPACITY_PER_THREAD);
+    }
+
+    public PipelineConfig(int generatorThreads, int printerThreads, int parserThreads, int queueCapacity) {
+        if (generatorThreads < 1 || printerThreads < 1 || parserThreads < 1) {
+            throw new IllegalArgumentException("Every pipeline stage needs at least 1 thread.");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be at least 1.");
+        }
+
+        this.generatorThreads = generatorThreads;
+        this.printerThreads = printerThreads;
+        this.parserThreads = parserThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getGeneratorThreads() {
+        return generatorThreads;
+    }
+
+    public int getPrinterThreads() {
+        return printerThreads;
+    }
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+}
@@ -0,0 +1,32 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.shrinker.ShrinkCandidate;
+
+/**
+ * Remembers the shrink candidates that were rejected during one shrink, by the fingerprint of their edit, so that later
+ * steps do not build, print or parse them again. Texts that were parsed before are not remembered here; their verdict
+ * is in the tester's {@link ParseCache}.
+ *
+ * An edit is the same if it is of the same kind, with the same arguments, on a node with the same path and content.
+ * The rest of the term may have shrunk since it was rejected; like delta debugging, this assumes that a reduction that
+ * lost the ambiguity before still loses it.
+ */
+class ShrinkMemo {
+    private static final int CAPACITY = 1 << 16;
+
+    private final FingerprintSet edits;
+
+    public ShrinkMemo() {
+        this.edits = new FingerprintSet(CAPACITY);
+    }
+
+    public boolean isRejected(long edit) {
+        return edit != 0 && edits.contains(edit);
+    }
+
+    public void reject(ShrinkCandidate candidate) {
+        if (candidate.getEdit() != 0) {
+            edits.add(candidate.getEdit());
+        }
+    }
+}
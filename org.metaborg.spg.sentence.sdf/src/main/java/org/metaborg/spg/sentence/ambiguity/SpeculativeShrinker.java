@@ -0,0 +1,127 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.metaborg.spg.sentence.ambiguity.result.ShrinkStep;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.metaborg.spg.sentence.shrinker.ShrinkCandidate;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates a sliding window of shrink candidates concurrently, but commits them in candidate order.
+ *
+ * The first ambiguous candidate in the order of the candidate stream is accepted, so the outcome is the same as
+ * that of a sequential shrink. Candidates after it that were already evaluated are counted as wasted. Rejections are
+ * recorded in the memo as candidates are committed, so only candidates before the accepted one are remembered, as in
+ * a sequential shrink; the results of the candidates after it are dropped.
+ */
+class SpeculativeShrinker implements AutoCloseable {
+    private final Tester tester;
+    private final ExecutorService executor;
+    private final int window;
+
+    public SpeculativeShrinker(Tester tester, int threads) {
+        this.tester = tester;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.window = threads;
+    }
+
+    public Optional<IStrategoTerm> shrink(IStrategoTerm term, Iterator<ShrinkCandidate> candidates, ShrinkMemo memo, List<ShrinkStep> steps) {
+        Deque<Speculation> pending = new ArrayDeque<>();
+        AtomicBoolean committed = new AtomicBoolean();
+        AtomicInteger evaluated = new AtomicInteger();
+        int consumed = 0;
+
+        try {
+            fill(pending, candidates, committed, evaluated);
+
+            while (!pending.isEmpty()) {
+                Speculation speculation = pending.poll();
+                consumed++;
+
+                if (speculation.get()) {
+                    committed.set(true);
+
+                    for (Speculation rest : pending) {
+                        rest.future.cancel(false);
+                    }
+
+                    IStrategoTerm shrunk = speculation.candidate.getTerm();
+                    int reduction = GeneratorAttachment.getSize(term) - GeneratorAttachment.getSize(shrunk);
+
+                    steps.add(new ShrinkStep(evaluated.get(), evaluated.get() - consumed, 1, reduction));
+
+                    return Optional.of(shrunk);
+                }
+
+                memo.reject(speculation.candidate);
+                fill(pending, candidates, committed, evaluated);
+            }
+
+            steps.add(new ShrinkStep(evaluated.get(), evaluated.get() - consumed, 0, 0));
+
+            return Optional.empty();
+        } finally {
+            committed.set(true);
+        }
+    }
+
+    private void fill(Deque<Speculation> pending, Iterator<ShrinkCandidate> candidates, AtomicBoolean committed, AtomicInteger evaluated) {
+        while (pending.size() < window && candidates.hasNext()) {
+            ShrinkCandidate candidate = candidates.next();
+
+            Future<Boolean> future = executor.submit(() -> {
+                if (committed.get()) {
+                    return false;
+                }
+
+                evaluated.incrementAndGet();
+
+                return tester.printAmbiguous(candidate.getTerm());
+            });
+
+            pending.add(new Speculation(candidate, future));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class Speculation {
+        private final ShrinkCandidate candidate;
+        private final Future<Boolean> future;
+
+        public Speculation(ShrinkCandidate candidate, Future<Boolean> future) {
+            this.candidate = candidate;
+            this.future = future;
+        }
+
+        public boolean get() {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new TesterCancelledException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package org.metaborg.spg.sentence.ambiguity;
 
+import org.metaborg.spg.sentence.statistics.PipelineStatistics;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public abstract class StatisticsTesterProgress implements TesterProgress {
     private ArrayList<Integer> lengths;
+    private PipelineStatistics pipelineStatistics;
 
     public StatisticsTesterProgress() {
         this.lengths = new ArrayList<>();
@@ -15,7 +18,16 @@ public abstract class StatisticsTesterProgress implements TesterProgress {
         lengths.add(text.length());
     }
 
+    @Override
+    public void pipelineUpdated(PipelineStatistics statistics) {
+        this.pipelineStatistics = statistics;
+    }
+
     public List<Integer> getLengths() {
         return lengths;
     }
+
+    public PipelineStatistics getPipelineStatistics() {
+        return pipelineStatistics;
+    }
 }
@@ -4,12 +4,22 @@ import com.google.inject.Inject;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.syntax.ParseException;
 import org.metaborg.spg.sentence.ambiguity.result.FindResult;
+import org.metaborg.spg.sentence.ambiguity.result.ParseCacheStatistics;
 import org.metaborg.spg.sentence.ambiguity.result.ShrinkResult;
+import org.metaborg.spg.sentence.ambiguity.result.ShrinkStep;
 import org.metaborg.spg.sentence.ambiguity.result.TestResult;
+import org.metaborg.spg.sentence.ambiguity.result.WorkerStatistics;
+import org.metaborg.spg.sentence.generator.Enumerator;
 import org.metaborg.spg.sentence.generator.Generator;
-import org.metaborg.spg.sentence.printer.Printer;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.metaborg.spg.sentence.generator.SelectionFeedback;
+import org.metaborg.spg.sentence.printer.PrinterPool;
 import org.metaborg.spg.sentence.printer.PrinterRuntimeException;
+import org.metaborg.spg.sentence.random.IRandom;
+import org.metaborg.spg.sentence.shrinker.ShrinkCandidate;
 import org.metaborg.spg.sentence.shrinker.Shrinker;
+import org.metaborg.spg.sentence.statistics.CoverageStatistics;
+import org.metaborg.spg.sentence.statistics.PrinterPoolStatistics;
 import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
 import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
 import org.metaborg.spoofax.core.syntax.JSGLRParserConfiguration;
@@ -17,25 +27,48 @@ import org.metaborg.spoofax.core.unit.ISpoofaxInputUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxParseUnit;
 import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
 import org.metaborg.util.time.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.spoofax.interpreter.terms.IStrategoAppl;
 import org.spoofax.interpreter.terms.IStrategoList;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import static java.util.stream.Stream.of;
 
 public class Tester {
+    private static final Logger logger = LoggerFactory.getLogger(Tester.class);
     private static final JSGLRParserConfiguration PARSER_CONFIG = new JSGLRParserConfiguration(false, false);
+    private static final int PARSE_CACHE_CAPACITY = 10000;
+    private static final double AMBIGUOUS_REWARD = 1;
+    private static final double SLOW_REWARD = 0.25;
+    private static final double SLOW_FACTOR = 4;
+    private static final int SLOW_WARMUP_CHARACTERS = 10000;
     private final GeneratorTermFactory termFactory;
     private final ISpoofaxUnitService unitService;
     private final ISpoofaxSyntaxService syntaxService;
     private final ILanguageImpl languageImpl;
-    private final Printer printer;
+    private final PrinterPool printerPool;
     private final Generator generator;
+    private final Enumerator enumerator;
     private final Shrinker shrinker;
+    private final IRandom random;
+    private final ParseCache parseCache;
+    private final LongAdder parseNanos;
+    private final LongAdder parseCharacters;
 
     @Inject
     public Tester(
@@ -43,82 +76,281 @@ public class Tester {
             ISpoofaxUnitService unitService,
             ISpoofaxSyntaxService syntaxService,
             ILanguageImpl languageImpl,
-            Printer printer,
+            PrinterPool printerPool,
             Generator generator,
-            Shrinker shrinker
+            Shrinker shrinker,
+            IRandom random
     ) {
         this.termFactory = termFactory;
         this.unitService = unitService;
         this.syntaxService = syntaxService;
         this.languageImpl = languageImpl;
-        this.printer = printer;
+        this.printerPool = printerPool;
         this.generator = generator;
+        this.enumerator = new Enumerator(generator);
         this.shrinker = shrinker;
+        this.random = random;
+        this.parseCache = new ParseCache(PARSE_CACHE_CAPACITY);
+        this.parseNanos = new LongAdder();
+        this.parseCharacters = new LongAdder();
     }
 
     public TestResult test(TesterConfig config, TesterProgress progress) {
-        FindResult findResult = find(config, progress);
+        FindResult findResult = config.isSmallest() ? findSmallest(config, progress) : find(config, progress);
 
         if (!findResult.found()) {
             return new TestResult(findResult);
         }
 
-        ShrinkResult shrinkResult = shrink(findResult.term(), progress);
+        ShrinkResult shrinkResult = shrink(findResult.term(), config, progress);
 
         return new TestResult(findResult, shrinkResult);
     }
 
     public FindResult find(TesterConfig config, TesterProgress progress) {
+        Deduplicator deduplicator = new Deduplicator(config.getMaxNumberOfTerms());
+        SelectionFeedback feedback = getFeedback();
+        FindResult findResult;
+
+        // Coverage-guided and adaptive selection learn from every index up to and including the ambiguous one
+        feedback.begin();
+
+        try {
+            findResult = find(config, progress, deduplicator).withDedup(deduplicator.statistics());
+        } catch (RuntimeException e) {
+            feedback.end(0);
+
+            throw e;
+        }
+
+        feedback.end(findResult.found() ? findResult.terms() + 1 : findResult.terms());
+
+        if (findResult.found()) {
+            return findResult.withSeed(generator.getTermSeed(findResult.terms()));
+        }
+
+        return findResult;
+    }
+
+    protected FindResult find(TesterConfig config, TesterProgress progress, Deduplicator deduplicator) {
+        if (config.isPipelined()) {
+            return findPipelined(config, progress, deduplicator);
+        }
+
+        if (config.getThreads() > 1) {
+            return findParallel(config, progress, deduplicator);
+        }
+
         Timer timer = new Timer(true);
 
         int terms = config.getMaxNumberOfTerms();
 
         for (int i = 0; i < terms; i++) {
             try {
-                Optional<IStrategoTerm> termOpt = generator.generate(config.getMaxTermSize());
+                Optional<IStrategoTerm> termOpt = generator.generate(i, config.getMaxTermSize());
 
-                if (termOpt.isPresent()) {
+                if (termOpt.isPresent() && !deduplicator.seen(termOpt.get(), i)) {
                     IStrategoTerm term = termOpt.get();
-                    String text = printer.print(term);
+                    String text = printerPool.print(term);
 
                     progress.sentenceGenerated(text);
 
-                    if (isAmbiguous(text)) {
+                    if (!deduplicator.seen(text, i) && isAmbiguous(i, term, text)) {
                         return new FindResult(timer, i, term, text);
                     }
                 }
             } catch (TesterCancelledException e) {
                 return new FindResult(timer, i);
-            } catch (PrinterRuntimeException | ParseException e) {
+            } catch (PrinterRuntimeException e) {
                 e.printStackTrace();
+            } finally {
+                getFeedback().tested(i);
             }
         }
 
         return new FindResult(timer, terms);
     }
 
+    // Tests the terms up to the maximum term size smallest first, so the first hit is a smallest ambiguity
+    public FindResult findSmallest(TesterConfig config, TesterProgress progress) {
+        Timer timer = new Timer(true);
+        Deduplicator deduplicator = new Deduplicator(config.getMaxNumberOfTerms());
+
+        Iterator<IStrategoTerm> terms = enumerator.enumerate(config.getMaxTermSize());
+        int i = 0;
+
+        for (; i < config.getMaxNumberOfTerms() && terms.hasNext(); i++) {
+            try {
+                IStrategoTerm term = terms.next();
+                String text = printerPool.print(term);
+
+                progress.sentenceGenerated(text);
+
+                if (!deduplicator.seen(text, i) && isAmbiguous(text)) {
+                    return new FindResult(timer, i, term, text).withDedup(deduplicator.statistics());
+                }
+            } catch (TesterCancelledException e) {
+                return new FindResult(timer, i).withDedup(deduplicator.statistics());
+            } catch (PrinterRuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        return new FindResult(timer, i).withDedup(deduplicator.statistics());
+    }
+
+    protected FindResult findParallel(TesterConfig config, TesterProgress progress, Deduplicator deduplicator) {
+        Timer timer = new Timer(true);
+
+        int workers = config.getThreads();
+        printerPool.ensureSize(workers);
+
+        FindCandidate candidate = new FindCandidate(getFeedback());
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        CompletionService<WorkerStatistics> completionService = new ExecutorCompletionService<>(executor);
+
+        try {
+            for (int worker = 0; worker < workers; worker++) {
+                Generator workerGenerator = generator.withRandom(random.fork(worker));
+
+                completionService.submit(new FindWorker(this, workerGenerator, printerPool, config, progress, deduplicator, candidate, worker, workers));
+            }
+
+            List<WorkerStatistics> statistics = new ArrayList<>();
+            RuntimeException failure = null;
+            boolean interrupted = false;
+
+            // On interrupt the workers are cancelled and awaited, so the result still counts the terms they generated
+            for (int worker = 0; worker < workers; ) {
+                try {
+                    statistics.add(completionService.take().get());
+                    worker++;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    candidate.cancel();
+                } catch (ExecutionException e) {
+                    worker++;
+                    candidate.cancel();
+
+                    if (!(e.getCause() instanceof TesterCancelledException) && failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause()
+                                : new RuntimeException(e.getCause());
+                    }
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            statistics.sort((s1, s2) -> Integer.compare(s1.worker(), s2.worker()));
+
+            if (candidate.isCancelled()) {
+                int terms = statistics.stream().mapToInt(WorkerStatistics::terms).sum();
+
+                return new FindResult(timer, terms, statistics);
+            }
+
+            if (candidate.found()) {
+                return new FindResult(timer, candidate.index(), candidate.term(), candidate.text(), statistics);
+            }
+
+            return new FindResult(timer, config.getMaxNumberOfTerms(), statistics);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected FindResult findPipelined(TesterConfig config, TesterProgress progress, Deduplicator deduplicator) {
+        PipelineConfig pipelineConfig = config.getPipelineConfig();
+        List<Generator> generators = new ArrayList<>();
+
+        for (int i = 0; i < pipelineConfig.getGeneratorThreads(); i++) {
+            generators.add(generator.withRandom(random.fork(i)));
+        }
+
+        printerPool.ensureSize(pipelineConfig.getPrinterThreads());
+
+        return new FindPipeline(this, generators, printerPool, config, progress, deduplicator).run();
+    }
+
     public ShrinkResult shrink(IStrategoTerm term, TesterProgress progress) {
         Timer timer = new Timer(true);
 
-        return shrink(term, progress, timer);
+        return shrink(term, progress, timer, new ArrayList<>(), new ShrinkMemo());
+    }
+
+    public ShrinkResult shrink(IStrategoTerm term, TesterConfig config, TesterProgress progress) {
+        if (config.getThreads() > 1) {
+            return shrinkParallel(term, config, progress);
+        }
+
+        return shrink(term, progress);
     }
 
-    protected ShrinkResult shrink(IStrategoTerm term, TesterProgress progress, Timer timer) {
+    protected ShrinkResult shrinkParallel(IStrategoTerm term, TesterConfig config, TesterProgress progress) {
+        Timer timer = new Timer(true);
+
+        printerPool.ensureSize(config.getThreads());
+
+        try (SpeculativeShrinker speculativeShrinker = new SpeculativeShrinker(this, config.getThreads())) {
+            return shrinkParallel(term, progress, timer, new ArrayList<>(), new ShrinkMemo(), speculativeShrinker);
+        }
+    }
+
+    protected ShrinkResult shrinkParallel(IStrategoTerm term, TesterProgress progress, Timer timer, List<ShrinkStep> steps, ShrinkMemo memo, SpeculativeShrinker speculativeShrinker) {
         IStrategoTerm nonambiguous = disambiguate(term);
-        String text = printer.print(nonambiguous);
+        String text = printerPool.print(nonambiguous);
 
         try {
             progress.sentenceShrinked(text);
         } catch (TesterCancelledException e) {
-            return new ShrinkResult(timer, nonambiguous, text);
+            return new ShrinkResult(timer, nonambiguous, text, steps);
         }
 
-        Optional<IStrategoTerm> shrunkOpt = shrink(nonambiguous).findAny();
+        Iterator<ShrinkCandidate> candidates = shrinker.shrink(nonambiguous, memo::isRejected).iterator();
+        Optional<IStrategoTerm> shrunkOpt = speculativeShrinker.shrink(nonambiguous, candidates, memo, steps);
 
         if (!shrunkOpt.isPresent()) {
-            return new ShrinkResult(timer, nonambiguous, text);
+            return new ShrinkResult(timer, nonambiguous, text, steps);
         } else {
-            return shrink(shrunkOpt.get(), progress, timer);
+            return shrinkParallel(shrunkOpt.get(), progress, timer, steps, memo, speculativeShrinker);
+        }
+    }
+
+    protected ShrinkResult shrink(IStrategoTerm term, TesterProgress progress, Timer timer, List<ShrinkStep> steps, ShrinkMemo memo) {
+        IStrategoTerm nonambiguous = disambiguate(term);
+        String text = printerPool.print(nonambiguous);
+
+        try {
+            progress.sentenceShrinked(text);
+        } catch (TesterCancelledException e) {
+            return new ShrinkResult(timer, nonambiguous, text, steps);
+        }
+
+        AtomicInteger evaluated = new AtomicInteger();
+
+        Optional<IStrategoTerm> shrunkOpt = shrinker.shrink(nonambiguous, memo::isRejected)
+                .peek(candidate -> evaluated.incrementAndGet())
+                .filter(candidate -> printAmbiguous(candidate, memo))
+                .map(ShrinkCandidate::getTerm)
+                .findAny();
+
+        int reduction = shrunkOpt.isPresent()
+                ? GeneratorAttachment.getSize(nonambiguous) - GeneratorAttachment.getSize(shrunkOpt.get())
+                : 0;
+
+        steps.add(new ShrinkStep(evaluated.get(), 0, shrunkOpt.isPresent() ? 1 : 0, reduction));
+
+        if (!shrunkOpt.isPresent()) {
+            return new ShrinkResult(timer, nonambiguous, text, steps);
+        } else {
+            return shrink(shrunkOpt.get(), progress, timer, steps, memo);
         }
     }
 
@@ -128,20 +360,21 @@ public class Tester {
         return shrunkTerms.filter(this::printAmbiguous);
     }
 
-    protected boolean printAmbiguous(IStrategoTerm term) {
-        String text = printer.print(term);
+    // Candidates that are not ambiguous are rejected in the memo, so later shrink steps skip them
+    protected boolean printAmbiguous(ShrinkCandidate candidate, ShrinkMemo memo) {
+        boolean ambiguous = printAmbiguous(candidate.getTerm());
 
-        try {
-            ISpoofaxParseUnit parseUnit = parse(text);
-
-            if (parseUnit.success()) {
-                return isAmbiguous(parseUnit.ast());
-            } else {
-                return false;
-            }
-        } catch (ParseException e) {
-            return false;
+        if (!ambiguous) {
+            memo.reject(candidate);
         }
+
+        return ambiguous;
+    }
+
+    protected boolean printAmbiguous(IStrategoTerm term) {
+        String text = printerPool.print(term);
+
+        return verdict(text) == ParseCache.Verdict.AMBIGUOUS;
     }
 
     protected ISpoofaxParseUnit parse(String text) throws ParseException {
@@ -207,10 +440,131 @@ public class Tester {
         }
     }
 
-    private boolean isAmbiguous(String text) throws ParseException {
-        ISpoofaxParseUnit parseUnit = parse(text);
+    boolean isAmbiguous(String text) {
+        return verdict(text) == ParseCache.Verdict.AMBIGUOUS;
+    }
+
+    // Parses the generated sentence with the given index and rewards its productions, which the generator applies in
+    // index order. A verdict from the cache took no parse, so it is not timed and never counts as slow.
+    boolean isAmbiguous(int index, IStrategoTerm term, String text) {
+        ParseCache.Verdict verdict = parseCache.get(text);
+        double reward;
+
+        if (verdict != null) {
+            reward = verdict == ParseCache.Verdict.AMBIGUOUS ? AMBIGUOUS_REWARD : 0;
+        } else {
+            long start = System.nanoTime();
+            verdict = parseVerdict(text);
+            reward = reward(verdict, text.length(), System.nanoTime() - start);
+        }
+
+        getFeedback().rewarded(index, term, reward);
+
+        return verdict == ParseCache.Verdict.AMBIGUOUS;
+    }
+
+    // Ambiguities earn the full reward and parses much slower per character than average earn a little
+    private double reward(ParseCache.Verdict verdict, int length, long nanos) {
+        long count = parseCharacters.sum();
+        long total = parseNanos.sum();
+
+        parseNanos.add(nanos);
+        parseCharacters.add(length);
+
+        if (verdict == ParseCache.Verdict.AMBIGUOUS) {
+            return AMBIGUOUS_REWARD;
+        } else if (verdict == ParseCache.Verdict.UNAMBIGUOUS && count >= SLOW_WARMUP_CHARACTERS
+                && nanos > SLOW_FACTOR * length * total / count) {
+            return SLOW_REWARD;
+        }
+
+        return 0;
+    }
+
+    private ParseCache.Verdict verdict(String text) {
+        ParseCache.Verdict verdict = parseCache.get(text);
+
+        if (verdict != null) {
+            return verdict;
+        }
+
+        return parseVerdict(text);
+    }
+
+    private ParseCache.Verdict parseVerdict(String text) {
+        ParseCache.Verdict verdict = classify(text);
+        parseCache.put(text, verdict);
+
+        return verdict;
+    }
+
+    // A parse that throws is reported as failed, like a parse that does not succeed; the exception is logged only the first
+    // time the text is parsed
+    protected ParseCache.Verdict classify(String text) {
+        try {
+            ISpoofaxParseUnit parseUnit = parse(text);
+
+            if (!parseUnit.success()) {
+                return ParseCache.Verdict.FAILED;
+            } else if (isAmbiguous(parseUnit.ast())) {
+                return ParseCache.Verdict.AMBIGUOUS;
+            } else {
+                return ParseCache.Verdict.UNAMBIGUOUS;
+            }
+        } catch (ParseException e) {
+            logger.debug("Failed to parse sentence: " + text, e);
+
+            return ParseCache.Verdict.FAILED;
+        }
+    }
+
+    public PrinterPoolStatistics getPrinterPoolStatistics() {
+        return printerPool.statistics();
+    }
+
+    public ParseCacheStatistics getParseCacheStatistics() {
+        return parseCache.statistics();
+    }
+
+    // Regenerates the term with the given index of a find run, as reported by FindResult.terms(). The generator forks
+    // its stream from the seed of the module by name, so this also holds for another tester created with that seed.
+    public Optional<IStrategoTerm> replay(int index, int maxTermSize) {
+        return generator.generate(index, maxTermSize);
+    }
+
+    // Tests and shrinks only the term with the given term seed, as reported by FindResult.seed()
+    public TestResult replay(long termSeed, TesterConfig config, TesterProgress progress) {
+        Timer timer = new Timer(true);
+        Optional<IStrategoTerm> termOpt = generator.generateFromSeed(termSeed, config.getMaxTermSize());
+
+        if (!termOpt.isPresent()) {
+            return new TestResult(new FindResult(timer, 1));
+        }
+
+        IStrategoTerm term = termOpt.get();
+        String text = printerPool.print(term);
+
+        progress.sentenceGenerated(text);
+
+        if (!isAmbiguous(text)) {
+            return new TestResult(new FindResult(timer, 1));
+        }
+
+        FindResult findResult = new FindResult(timer, 0, term, text).withSeed(termSeed);
+
+        return new TestResult(findResult, shrink(term, config, progress));
+    }
+
+    public long getTermSeed(int index) {
+        return generator.getTermSeed(index);
+    }
+
+    SelectionFeedback getFeedback() {
+        return generator.getFeedback();
+    }
 
-        return parseUnit.success() && isAmbiguous(parseUnit.ast());
+    public CoverageStatistics getCoverageStatistics() {
+        return generator.getCoverage().statistics();
     }
 
     private boolean isAmbiguous(IStrategoTerm term) {
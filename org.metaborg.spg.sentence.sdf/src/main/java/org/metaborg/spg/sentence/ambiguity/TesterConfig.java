@@ -3,10 +3,41 @@ package org.metaborg.spg.sentence.ambiguity;
 public class TesterConfig {
     private final int maxNumberOfTerms;
     private final int maxTermSize;
+    private final int threads;
+    private final PipelineConfig pipelineConfig;
+    private final boolean smallest;
 
     public TesterConfig(int maxNumberOfTerms, int maxTermSize) {
+        this(maxNumberOfTerms, maxTermSize, 1);
+    }
+
+    public TesterConfig(int maxNumberOfTerms, int maxTermSize, int threads) {
+        this(maxNumberOfTerms, maxTermSize, threads, null);
+    }
+
+    public TesterConfig(int maxNumberOfTerms, int maxTermSize, PipelineConfig pipelineConfig) {
+        this(maxNumberOfTerms, maxTermSize, 1, pipelineConfig);
+    }
+
+    public TesterConfig(int maxNumberOfTerms, int maxTermSize, int threads, PipelineConfig pipelineConfig) {
+        this(maxNumberOfTerms, maxTermSize, threads, pipelineConfig, false);
+    }
+
+    // Enumerates the terms smallest first instead of generating them, see Tester.findSmallest
+    public TesterConfig(int maxNumberOfTerms, int maxTermSize, boolean smallest) {
+        this(maxNumberOfTerms, maxTermSize, 1, null, smallest);
+    }
+
+    public TesterConfig(int maxNumberOfTerms, int maxTermSize, int threads, PipelineConfig pipelineConfig, boolean smallest) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1.");
+        }
+
         this.maxNumberOfTerms = maxNumberOfTerms;
         this.maxTermSize = maxTermSize;
+        this.threads = threads;
+        this.pipelineConfig = pipelineConfig;
+        this.smallest = smallest;
     }
 
     public int getMaxNumberOfTerms() {
@@ -16,4 +47,20 @@ public class TesterConfig {
     public int getMaxTermSize() {
         return maxTermSize;
     }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public PipelineConfig getPipelineConfig() {
+        return pipelineConfig;
+    }
+
+    public boolean isPipelined() {
+        return pipelineConfig != null;
+    }
+
+    public boolean isSmallest() {
+        return smallest;
+    }
 }
@@ -4,11 +4,16 @@ import com.google.inject.Inject;
 import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.project.IProject;
 import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
 import org.metaborg.spg.sentence.generator.GeneratorFactory;
-import org.metaborg.spg.sentence.printer.Printer;
 import org.metaborg.spg.sentence.printer.PrinterFactory;
+import org.metaborg.spg.sentence.printer.PrinterPool;
+import org.metaborg.spg.sentence.printer.TemplatePrinter;
+import org.metaborg.spg.sentence.random.IRandom;
+import org.metaborg.spg.sentence.random.SplitRandom;
 import org.metaborg.spg.sentence.sdf3.Grammar;
 import org.metaborg.spg.sentence.sdf3.GrammarFactory;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spg.sentence.shrinker.Shrinker;
 import org.metaborg.spg.sentence.shrinker.ShrinkerFactory;
 import org.metaborg.spg.sentence.signature.Signature;
@@ -18,6 +23,8 @@ import org.metaborg.spoofax.core.syntax.ISpoofaxSyntaxService;
 import org.metaborg.spoofax.core.unit.ISpoofaxUnitService;
 
 public class TesterFactory {
+    public static final String STREAM = "tester";
+
     private final GeneratorTermFactory termFactory;
     private final ISpoofaxUnitService unitService;
     private final ISpoofaxSyntaxService syntaxService;
@@ -26,6 +33,7 @@ public class TesterFactory {
     private final GrammarFactory grammarFactory;
     private final SignatureFactory signatureFactory;
     private final ShrinkerFactory shrinkerFactory;
+    private final IRandom random;
 
     @Inject
     public TesterFactory(
@@ -36,7 +44,8 @@ public class TesterFactory {
             GeneratorFactory generatorFactory,
             GrammarFactory grammarFactory,
             SignatureFactory signatureFactory,
-            ShrinkerFactory shrinkerFactory) {
+            ShrinkerFactory shrinkerFactory,
+            IRandom random) {
         this.termFactory = termFactory;
         this.unitService = unitService;
         this.syntaxService = syntaxService;
@@ -45,15 +54,34 @@ public class TesterFactory {
         this.grammarFactory = grammarFactory;
         this.signatureFactory = signatureFactory;
         this.shrinkerFactory = shrinkerFactory;
+        this.random = random;
     }
 
     public Tester create(ILanguageImpl templateLanguageImpl, ILanguageImpl languageImpl, IProject project) throws Exception {
-        Printer printer = printerFactory.create(languageImpl, project);
-        Generator generator = generatorFactory.create(languageImpl, project);
+        return create(templateLanguageImpl, languageImpl, project, GeneratorConfig.UNIFORM);
+    }
+
+    public Tester create(ILanguageImpl templateLanguageImpl, ILanguageImpl languageImpl, IProject project, GeneratorConfig generatorConfig) throws Exception {
+        return create(templateLanguageImpl, languageImpl, project, generatorConfig, ListReduction.SINGLE);
+    }
+
+    public Tester create(ILanguageImpl templateLanguageImpl, ILanguageImpl languageImpl, IProject project, GeneratorConfig generatorConfig, ListReduction listReduction) throws Exception {
+        return create(templateLanguageImpl, languageImpl, project, generatorConfig, listReduction, random);
+    }
+
+    // Derives the streams of the tester from the given seed instead of the seed of the module
+    public Tester create(ILanguageImpl templateLanguageImpl, ILanguageImpl languageImpl, IProject project, GeneratorConfig generatorConfig, ListReduction listReduction, long seed) throws Exception {
+        return create(templateLanguageImpl, languageImpl, project, generatorConfig, listReduction, new SplitRandom(seed));
+    }
+
+    protected Tester create(ILanguageImpl templateLanguageImpl, ILanguageImpl languageImpl, IProject project, GeneratorConfig generatorConfig, ListReduction listReduction, IRandom root) throws Exception {
         Grammar grammar = grammarFactory.create(templateLanguageImpl, project);
+        TemplatePrinter templatePrinter = new TemplatePrinter(grammar);
+        PrinterPool printerPool = printerFactory.createPool(languageImpl, project, templatePrinter, 1);
+        Generator generator = generatorFactory.create(languageImpl, project, generatorConfig, root);
         Signature signature = signatureFactory.create(grammar);
-        Shrinker shrinker = shrinkerFactory.create(generator, signature);
+        Shrinker shrinker = shrinkerFactory.create(generator, signature, listReduction, root);
 
-        return new Tester(termFactory, unitService, syntaxService, languageImpl, printer, generator, shrinker);
+        return new Tester(termFactory, unitService, syntaxService, languageImpl, printerPool, generator, shrinker, root.fork(STREAM));
     }
 }
@@ -1,7 +1,12 @@
 package org.metaborg.spg.sentence.ambiguity;
 
+import org.metaborg.spg.sentence.statistics.PipelineStatistics;
+
 public interface TesterProgress {
     void sentenceGenerated(String text);
 
     void sentenceShrinked(String text);
+
+    default void pipelineUpdated(PipelineStatistics statistics) {
+    }
 }
@@ -0,0 +1,58 @@
+package org.metaborg.spg.sentence.ambiguity.result;
+
+public class DedupStatistics {
+    private final long termLookups;
+    private final long termHits;
+    private final long textLookups;
+    private final long textHits;
+    private final long dropped;
+
+    public DedupStatistics(long termLookups, long termHits, long textLookups, long textHits, long dropped) {
+        this.termLookups = termLookups;
+        this.termHits = termHits;
+        this.textLookups = textLookups;
+        this.textHits = textHits;
+        this.dropped = dropped;
+    }
+
+    public long termHits() {
+        return termHits;
+    }
+
+    public long textHits() {
+        return textHits;
+    }
+
+    // The number of fingerprints that were not recorded because the seen-sets were full
+    public long dropped() {
+        return dropped;
+    }
+
+    public double termHitRate() {
+        return rate(termHits, termLookups);
+    }
+
+    public double textHitRate() {
+        return rate(textHits, textLookups);
+    }
+
+    private double rate(long hits, long lookups) {
+        if (lookups == 0) {
+            return 0;
+        }
+
+        return hits / (double) lookups;
+    }
+
+    @Override
+    public String toString() {
+        String statistics = String.format("Duplicate terms: %d (%.1f%%), duplicate sentences: %d (%.1f%%)\n",
+                termHits, termHitRate() * 100, textHits, textHitRate() * 100);
+
+        if (dropped > 0) {
+            statistics += String.format("Seen-sets full, %d fingerprints not recorded\n", dropped);
+        }
+
+        return statistics;
+    }
+}
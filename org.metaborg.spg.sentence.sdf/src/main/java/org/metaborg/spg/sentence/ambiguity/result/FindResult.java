@@ -3,11 +3,17 @@ package org.metaborg.spg.sentence.ambiguity.result;
 import org.metaborg.util.time.Timer;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+import java.util.Collections;
+import java.util.List;
+
 public class FindResult {
     private final long duration;
     private final int terms;
     private final IStrategoTerm term;
     private final String text;
+    private final List<WorkerStatistics> workers;
+    private final DedupStatistics dedup;
+    private final Long seed;
 
     public FindResult(Timer timer, int terms) {
         this(timer, terms, null, null);
@@ -18,6 +24,41 @@ public class FindResult {
         this.terms = terms;
         this.term = term;
         this.text = text;
+        this.workers = Collections.singletonList(new WorkerStatistics(0, terms, duration));
+        this.dedup = null;
+        this.seed = null;
+    }
+
+    public FindResult(Timer timer, int terms, List<WorkerStatistics> workers) {
+        this(timer, terms, null, null, workers);
+    }
+
+    public FindResult(Timer timer, int terms, IStrategoTerm term, String text, List<WorkerStatistics> workers) {
+        this.duration = timer.stop();
+        this.terms = terms;
+        this.term = term;
+        this.text = text;
+        this.workers = workers;
+        this.dedup = null;
+        this.seed = null;
+    }
+
+    private FindResult(FindResult result, DedupStatistics dedup, Long seed) {
+        this.duration = result.duration;
+        this.terms = result.terms;
+        this.term = result.term;
+        this.text = result.text;
+        this.workers = result.workers;
+        this.dedup = dedup;
+        this.seed = seed;
+    }
+
+    public FindResult withDedup(DedupStatistics dedup) {
+        return new FindResult(this, dedup, seed);
+    }
+
+    public FindResult withSeed(long seed) {
+        return new FindResult(this, dedup, seed);
     }
 
     public long duration() {
@@ -36,6 +77,19 @@ public class FindResult {
         return text;
     }
 
+    public List<WorkerStatistics> workers() {
+        return workers;
+    }
+
+    public DedupStatistics dedup() {
+        return dedup;
+    }
+
+    // The term seed of the found term, from which Generator.generateFromSeed regenerates it; null if it was not generated
+    public Long seed() {
+        return seed;
+    }
+
     public boolean found() {
         return term != null;
     }
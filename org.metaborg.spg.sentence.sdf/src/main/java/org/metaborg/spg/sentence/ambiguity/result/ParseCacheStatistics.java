@@ -0,0 +1,45 @@
+package org.metaborg.spg.sentence.ambiguity.result;
+
+public class ParseCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final int size;
+    private final int capacity;
+
+    public ParseCacheStatistics(long hits, long misses, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public double hitRate() {
+        if (hits + misses == 0) {
+            return 0;
+        }
+
+        return hits / (double) (hits + misses);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Parse cache: %d hits, %d misses (%.1f%% hits), %d/%d entries\n",
+                hits, misses, hitRate() * 100, size, capacity);
+    }
+}
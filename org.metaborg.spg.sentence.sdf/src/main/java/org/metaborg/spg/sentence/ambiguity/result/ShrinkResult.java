@@ -3,19 +3,28 @@ package org.metaborg.spg.sentence.ambiguity.result;
 import org.metaborg.util.time.Timer;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+import java.util.Collections;
+import java.util.List;
+
 public class ShrinkResult {
     private final long duration;
     private final IStrategoTerm term;
     private final String text;
+    private final List<ShrinkStep> steps;
 
     public ShrinkResult(Timer timer) {
         this(timer, null, null);
     }
 
     public ShrinkResult(Timer timer, IStrategoTerm term, String text) {
+        this(timer, term, text, Collections.emptyList());
+    }
+
+    public ShrinkResult(Timer timer, IStrategoTerm term, String text, List<ShrinkStep> steps) {
         this.duration = timer.stop();
         this.term = term;
         this.text = text;
+        this.steps = steps;
     }
 
     public long duration() {
@@ -30,6 +39,22 @@ public class ShrinkResult {
         return text;
     }
 
+    public List<ShrinkStep> steps() {
+        return steps;
+    }
+
+    public int evaluated() {
+        return steps.stream().mapToInt(ShrinkStep::evaluated).sum();
+    }
+
+    public int wasted() {
+        return steps.stream().mapToInt(ShrinkStep::wasted).sum();
+    }
+
+    public int reduction() {
+        return steps.stream().mapToInt(ShrinkStep::reduction).sum();
+    }
+
     public boolean success() {
         return term != null;
     }
@@ -0,0 +1,32 @@
+package org.metaborg.spg.sentence.ambiguity.result;
+
+public class ShrinkStep {
+    private final int evaluated;
+    private final int wasted;
+    private final int accepted;
+    private final int reduction;
+
+    public ShrinkStep(int evaluated, int wasted, int accepted, int reduction) {
+        this.evaluated = evaluated;
+        this.wasted = wasted;
+        this.accepted = accepted;
+        this.reduction = reduction;
+    }
+
+    public int evaluated() {
+        return evaluated;
+    }
+
+    public int wasted() {
+        return wasted;
+    }
+
+    public int accepted() {
+        return accepted;
+    }
+
+    // The number of nodes the accepted candidate removed from the term, 0 if no candidate was accepted
+    public int reduction() {
+        return reduction;
+    }
+}
@@ -0,0 +1,33 @@
+package org.metaborg.spg.sentence.ambiguity.result;
+
+public class WorkerStatistics {
+    private final int worker;
+    private final int terms;
+    private final long duration;
+
+    public WorkerStatistics(int worker, int terms, long duration) {
+        this.worker = worker;
+        this.terms = terms;
+        this.duration = duration;
+    }
+
+    public int worker() {
+        return worker;
+    }
+
+    public int terms() {
+        return terms;
+    }
+
+    public long duration() {
+        return duration / 1000000;
+    }
+
+    public double throughput() {
+        if (duration == 0) {
+            return 0;
+        }
+
+        return terms / (duration / 1000000000.0);
+    }
+}
@@ -0,0 +1,311 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.IterSymbol;
+import org.metaborg.sdf2table.grammar.LexicalSymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+import org.metaborg.sdf2table.grammar.Symbol;
+import org.metaborg.spg.sentence.random.IRandom;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * A generator that samples terms from a Boltzmann distribution tuned to a target size.
+ *
+ * Productions, list lengths and optionals are chosen with probabilities proportional to the values of the generating
+ * functions at the tuned parameter, so the expected size of a term equals the target size. Terms outside the
+ * tolerance window around the target are rejected, and a sample is abandoned as soon as it exceeds the window.
+ */
+public class BoltzmannGenerator extends Generator {
+    public static final double DEFAULT_TOLERANCE = 0.2;
+
+    private static final int MAX_ATTEMPTS = 100;
+    private static final int TUNING_ITERATIONS = 50;
+
+    private final GeneratingFunction generatingFunction;
+    private final Map<Integer, GeneratingFunction.Evaluation> evaluations;
+    private final int targetSize;
+    private final double tolerance;
+
+    public BoltzmannGenerator(Generator generator, int targetSize, double tolerance) {
+        this(generator, generator.random, new GeneratingFunction(generator, generator.productionsMap),
+            new ConcurrentHashMap<>(), targetSize, tolerance);
+    }
+
+    protected BoltzmannGenerator(Generator generator, IRandom random, GeneratingFunction generatingFunction,
+        Map<Integer, GeneratingFunction.Evaluation> evaluations, int targetSize, double tolerance) {
+        super(generator, random);
+
+        this.generatingFunction = generatingFunction;
+        this.evaluations = evaluations;
+        this.targetSize = targetSize;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public Generator withRandom(IRandom random) {
+        return new BoltzmannGenerator(this, random, generatingFunction, evaluations, targetSize, tolerance);
+    }
+
+    @Override
+    public Optional<IStrategoTerm> generate(int size) {
+        ISymbol symbol = getStartSymbol();
+        int target = Math.min(targetSize, size);
+        GeneratingFunction.Evaluation evaluation = evaluations.computeIfAbsent(target, t -> tune(symbol, t));
+
+        int lowerBound = (int) Math.floor(target * (1 - tolerance));
+        int upperBound = Math.min(size, (int) Math.ceil(target * (1 + tolerance)));
+
+        for(int i = 0; i < MAX_ATTEMPTS; i++) {
+            Budget budget = new Budget(upperBound);
+            Optional<IStrategoTerm> termOpt = sampleSymbol(symbol, evaluation, budget);
+
+            if(termOpt.isPresent() && budget.spent >= lowerBound) {
+                return termOpt;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    protected GeneratingFunction.Evaluation tune(ISymbol symbol, int target) {
+        double lower = 0;
+        double upper = 1;
+
+        for(int i = 0; i < TUNING_ITERATIONS; i++) {
+            double x = (lower + upper) / 2;
+            Optional<Double> expectedSize = generatingFunction.expectedSize(symbol, x);
+
+            if(!expectedSize.isPresent() || expectedSize.get() > target) {
+                upper = x;
+            } else {
+                lower = x;
+            }
+        }
+
+        Optional<GeneratingFunction.Evaluation> evaluation = generatingFunction.evaluate(lower);
+
+        if(!evaluation.isPresent()) {
+            throw new IllegalStateException("Unable to tune the Boltzmann sampler for size " + target);
+        }
+
+        return evaluation.get();
+    }
+
+    private Optional<IStrategoTerm> sampleSymbol(ISymbol symbol, GeneratingFunction.Evaluation evaluation,
+        Budget budget) {
+        return run(symbolFrame(symbol, evaluation, budget));
+    }
+
+    // Sampling runs on the frame stack of the generator; a failed child abandons the whole sample
+    private Frame symbolFrame(ISymbol symbol, GeneratingFunction.Evaluation evaluation, Budget budget) {
+        if(symbol instanceof LexicalSymbol) {
+            if(!budget.spend(1)) {
+                return new ResultFrame(null);
+            }
+
+            return new ResultFrame(termFactory.makeString(symbol, generateLexicalSymbol(symbol)));
+        } else if(symbol instanceof ContextFreeSymbol) {
+            Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+            if(innerSymbol instanceof IterSymbol) {
+                return new ListFrame(gf.createContextFreeSymbol(((IterSymbol) innerSymbol).getSymbol()), true, evaluation, budget);
+            } else if(innerSymbol instanceof IterSepSymbol) {
+                return new ListFrame(gf.createContextFreeSymbol(((IterSepSymbol) innerSymbol).getSymbol()), true, evaluation, budget);
+            } else if(innerSymbol instanceof IterStarSymbol) {
+                return new ListFrame(gf.createContextFreeSymbol(((IterStarSymbol) innerSymbol).getSymbol()), false, evaluation, budget);
+            } else if(innerSymbol instanceof IterStarSepSymbol) {
+                return new ListFrame(gf.createContextFreeSymbol(((IterStarSepSymbol) innerSymbol).getSymbol()), false, evaluation, budget);
+            } else if(innerSymbol instanceof OptionalSymbol) {
+                return new OptionalFrame(gf.createContextFreeSymbol(((OptionalSymbol) innerSymbol).getSymbol()), evaluation, budget);
+            }
+        }
+
+        return cfFrame(symbol, evaluation, budget);
+    }
+
+    private Frame cfFrame(ISymbol symbol, GeneratingFunction.Evaluation evaluation, Budget budget) {
+        List<IProduction> productions = productionsMap.get(symbol);
+        double threshold = random.nextDouble() * evaluation.get(symbol);
+
+        for(IProduction production : productions) {
+            double value = evaluation.get(production);
+
+            if(value > 0 && (threshold -= value) < 0) {
+                return new ProductionFrame(production, evaluation, budget);
+            }
+        }
+
+        return new ResultFrame(null);
+    }
+
+    private class ListFrame extends Frame {
+        private final Symbol symbol;
+        private final boolean nonEmpty;
+        private final GeneratingFunction.Evaluation evaluation;
+        private final Budget budget;
+        private final double value;
+        private final List<IStrategoTerm> children;
+        private boolean started;
+
+        public ListFrame(Symbol symbol, boolean nonEmpty, GeneratingFunction.Evaluation evaluation, Budget budget) {
+            this.symbol = symbol;
+            this.nonEmpty = nonEmpty;
+            this.evaluation = evaluation;
+            this.budget = budget;
+            this.value = evaluation.get(symbol);
+            this.children = new ArrayList<>();
+        }
+
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(!started) {
+                started = true;
+
+                // As in the minimum size table, an empty list costs one and the elements of a non-empty list carry
+                // its size
+                if(!nonEmpty && random.nextDouble() * (evaluation.getX() + value / (1 - value)) < evaluation.getX()) {
+                    if(budget.spend(1)) {
+                        result = termFactory.makeList(gf.createIterStarSymbol(symbol));
+                    }
+
+                    return null;
+                }
+
+                return symbolFrame(symbol, evaluation, budget);
+            }
+
+            if(child == null) {
+                return null;
+            }
+
+            children.add(child);
+
+            if(random.nextDouble() < value) {
+                return symbolFrame(symbol, evaluation, budget);
+            }
+
+            Symbol listSymbol = nonEmpty ? gf.createIterSymbol(symbol) : gf.createIterStarSymbol(symbol);
+            result = termFactory.makeList(listSymbol, children.toArray(new IStrategoTerm[0]));
+
+            return null;
+        }
+    }
+
+    private class OptionalFrame extends Frame {
+        private final Symbol symbol;
+        private final GeneratingFunction.Evaluation evaluation;
+        private final Budget budget;
+        private final OptionalSymbol optionalSymbol;
+        private boolean started;
+
+        public OptionalFrame(Symbol symbol, GeneratingFunction.Evaluation evaluation, Budget budget) {
+            this.symbol = symbol;
+            this.evaluation = evaluation;
+            this.budget = budget;
+            this.optionalSymbol = gf.createOptionalSymbol(symbol);
+        }
+
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(started) {
+                if(child != null) {
+                    result = termFactory.makeSome(optionalSymbol, child);
+                }
+
+                return null;
+            }
+
+            started = true;
+
+            if(!budget.spend(1)) {
+                return null;
+            }
+
+            if(random.nextDouble() * (1 + evaluation.get(symbol)) < 1) {
+                result = termFactory.makeNone(optionalSymbol);
+
+                return null;
+            }
+
+            return symbolFrame(symbol, evaluation, budget);
+        }
+    }
+
+    private class ProductionFrame extends Frame {
+        private final IProduction production;
+        private final GeneratingFunction.Evaluation evaluation;
+        private final Budget budget;
+        private final List<ISymbol> rhsSymbols;
+        private final List<IStrategoTerm> children;
+        private boolean started;
+
+        public ProductionFrame(IProduction production, GeneratingFunction.Evaluation evaluation, Budget budget) {
+            this.production = production;
+            this.evaluation = evaluation;
+            this.budget = budget;
+            this.rhsSymbols = cleanRhs(production.rightHand());
+            this.children = new ArrayList<>();
+        }
+
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(!started) {
+                started = true;
+
+                if(!budget.spend(1)) {
+                    return null;
+                }
+            } else if(child == null) {
+                return null;
+            } else {
+                children.add(child);
+            }
+
+            if(children.size() < rhsSymbols.size()) {
+                return symbolFrame(rhsSymbols.get(children.size()), evaluation, budget);
+            }
+
+            Optional<String> constructor = getConstructor(production);
+
+            if(!constructor.isPresent() && children.isEmpty()) {
+                return null;
+            }
+
+            hit(getCompiledGrammar().productionId(production));
+
+            if(constructor.isPresent()) {
+                result = termFactory.makeAppl(production.leftHand(), constructor.get(), children);
+            } else {
+                result = children.get(0);
+            }
+
+            return null;
+        }
+    }
+
+    private static class Budget {
+        private final int limit;
+        private int spent;
+
+        public Budget(int limit) {
+            this.limit = limit;
+        }
+
+        public boolean spend(int size) {
+            spent += size;
+
+            return spent <= limit;
+        }
+    }
+}
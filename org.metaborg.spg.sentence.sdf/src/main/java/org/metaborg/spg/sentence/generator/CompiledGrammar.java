@@ -0,0 +1,278 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.IterSymbol;
+import org.metaborg.sdf2table.grammar.LexicalSymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+import org.metaborg.sdf2table.grammar.Sort;
+import org.metaborg.sdf2table.grammar.Symbol;
+
+import com.google.common.collect.ListMultimap;
+
+/**
+ * The productions of the grammar compiled into dense integer-indexed tables for the generator's inner loop.
+ *
+ * Every symbol that occurs in a production gets an ID. Right-hand sides are stored as arrays of symbol IDs with layout
+ * removed, constructors are resolved up front, and the list and optional symbols that label generated terms are
+ * created once per element symbol. Minimum sizes are copied from the {@link MinimumSizeTable}.
+ */
+public class CompiledGrammar {
+    public static final byte SORT = 0;
+    public static final byte LEXICAL = 1;
+    public static final byte ITER = 2;
+    public static final byte ITER_STAR = 3;
+    public static final byte OPTIONAL = 4;
+    public static final byte UNKNOWN = 5;
+
+    private static final int[] NO_PRODUCTIONS = new int[0];
+
+    private final GrammarFactory gf;
+    private final Map<ISymbol, Integer> symbolIds;
+    private final Map<IProduction, Integer> productionIds;
+    private final List<ISymbol> symbolList;
+
+    private final ISymbol[] symbols;
+    private final byte[] kinds;
+    private final int[] elements;
+    private final IterSymbol[] iterSymbols;
+    private final IterStarSymbol[] iterStarSymbols;
+    private final OptionalSymbol[] optionalSymbols;
+    private final int[][] symbolProductions;
+    private final int[] symbolMinimumSizes;
+
+    private final IProduction[] productions;
+    private final int[][] rhs;
+    private final String[] constructors;
+    private final int[] productionMinimumSizes;
+
+    public CompiledGrammar(Generator generator, ListMultimap<ISymbol, IProduction> productionsMap,
+        MinimumSizeTable minimumSizes) {
+        this.gf = new GrammarFactory();
+        this.symbolIds = new HashMap<>();
+        this.productionIds = new HashMap<>();
+        this.symbolList = new ArrayList<>();
+
+        List<IProduction> productionList = new ArrayList<>(productionsMap.values());
+        int[][] productionRhs = new int[productionList.size()][];
+
+        for(int p = 0; p < productionList.size(); p++) {
+            IProduction production = productionList.get(p);
+            List<ISymbol> rhsSymbols = generator.cleanRhs(production.rightHand());
+
+            productionIds.put(production, p);
+            register(production.leftHand());
+            productionRhs[p] = new int[rhsSymbols.size()];
+
+            for(int i = 0; i < rhsSymbols.size(); i++) {
+                productionRhs[p][i] = register(rhsSymbols.get(i));
+            }
+        }
+
+        int symbolCount = symbolList.size();
+
+        this.symbols = symbolList.toArray(new ISymbol[0]);
+        this.kinds = new byte[symbolCount];
+        this.elements = new int[symbolCount];
+        this.iterSymbols = new IterSymbol[symbolCount];
+        this.iterStarSymbols = new IterStarSymbol[symbolCount];
+        this.optionalSymbols = new OptionalSymbol[symbolCount];
+        this.symbolProductions = new int[symbolCount][];
+        this.symbolMinimumSizes = new int[symbolCount];
+
+        for(int s = 0; s < symbolCount; s++) {
+            compileSymbol(s, minimumSizes);
+        }
+
+        for(ISymbol symbol : productionsMap.keySet()) {
+            List<IProduction> symbolProductionList = productionsMap.get(symbol);
+            int[] ids = new int[symbolProductionList.size()];
+
+            for(int i = 0; i < ids.length; i++) {
+                ids[i] = productionIds.get(symbolProductionList.get(i));
+            }
+
+            symbolProductions[symbolIds.get(symbol)] = ids;
+        }
+
+        this.productions = productionList.toArray(new IProduction[0]);
+        this.rhs = productionRhs;
+        this.constructors = new String[productions.length];
+        this.productionMinimumSizes = new int[productions.length];
+
+        for(int p = 0; p < productions.length; p++) {
+            constructors[p] = generator.getConstructor(productions[p]).orElse(null);
+            productionMinimumSizes[p] = minimumSizes.get(productions[p]);
+        }
+    }
+
+    public int symbolId(ISymbol symbol) {
+        Integer id = symbolIds.get(symbol);
+
+        if(id == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+
+        return id;
+    }
+
+    public int productionId(IProduction production) {
+        Integer id = productionIds.get(production);
+
+        if(id == null) {
+            throw new IllegalArgumentException("Unknown production: " + production);
+        }
+
+        return id;
+    }
+
+    public boolean contains(ISymbol symbol) {
+        return symbolIds.containsKey(symbol);
+    }
+
+    public ISymbol symbol(int symbol) {
+        return symbols[symbol];
+    }
+
+    public byte kind(int symbol) {
+        return kinds[symbol];
+    }
+
+    public int element(int symbol) {
+        return elements[symbol];
+    }
+
+    public IterSymbol iterSymbol(int symbol) {
+        return iterSymbols[symbol];
+    }
+
+    public IterStarSymbol iterStarSymbol(int symbol) {
+        return iterStarSymbols[symbol];
+    }
+
+    public OptionalSymbol optionalSymbol(int symbol) {
+        return optionalSymbols[symbol];
+    }
+
+    public int[] productions(int symbol) {
+        return symbolProductions[symbol];
+    }
+
+    public int minimumSize(int symbol) {
+        return symbolMinimumSizes[symbol];
+    }
+
+    public int productionCount() {
+        return productions.length;
+    }
+
+    public IProduction production(int production) {
+        return productions[production];
+    }
+
+    public int[] rhs(int production) {
+        return rhs[production];
+    }
+
+    public String constructor(int production) {
+        return constructors[production];
+    }
+
+    public int productionMinimumSize(int production) {
+        return productionMinimumSizes[production];
+    }
+
+    private int register(ISymbol symbol) {
+        Integer id = symbolIds.get(symbol);
+
+        if(id != null) {
+            return id;
+        }
+
+        id = symbolList.size();
+        symbolIds.put(symbol, id);
+        symbolList.add(symbol);
+
+        Symbol element = elementSymbol(symbol);
+
+        if(element != null) {
+            register(gf.createContextFreeSymbol(element));
+        }
+
+        return id;
+    }
+
+    private void compileSymbol(int s, MinimumSizeTable minimumSizes) {
+        ISymbol symbol = symbols[s];
+        Symbol element = elementSymbol(symbol);
+
+        kinds[s] = kind(symbol);
+        symbolMinimumSizes[s] = kinds[s] == UNKNOWN ? MinimumSizeTable.INFINITE : minimumSizes.get(symbol);
+        symbolProductions[s] = NO_PRODUCTIONS;
+
+        if(element != null) {
+            ContextFreeSymbol elementSymbol = gf.createContextFreeSymbol(element);
+
+            elements[s] = symbolIds.get(elementSymbol);
+            iterSymbols[s] = gf.createIterSymbol(elementSymbol);
+            iterStarSymbols[s] = gf.createIterStarSymbol(elementSymbol);
+            optionalSymbols[s] = gf.createOptionalSymbol(elementSymbol);
+        } else {
+            elements[s] = -1;
+        }
+    }
+
+    private byte kind(ISymbol symbol) {
+        if(symbol instanceof LexicalSymbol) {
+            return LEXICAL;
+        } else if(symbol instanceof ContextFreeSymbol) {
+            Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+            if(innerSymbol instanceof IterSymbol || innerSymbol instanceof IterSepSymbol) {
+                return ITER;
+            } else if(innerSymbol instanceof IterStarSymbol || innerSymbol instanceof IterStarSepSymbol) {
+                return ITER_STAR;
+            } else if(innerSymbol instanceof OptionalSymbol) {
+                return OPTIONAL;
+            } else if(innerSymbol instanceof Sort) {
+                return SORT;
+            }
+
+            return UNKNOWN;
+        }
+
+        return SORT;
+    }
+
+    private Symbol elementSymbol(ISymbol symbol) {
+        if(!(symbol instanceof ContextFreeSymbol)) {
+            return null;
+        }
+
+        Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+        if(innerSymbol instanceof IterSymbol) {
+            return ((IterSymbol) innerSymbol).getSymbol();
+        } else if(innerSymbol instanceof IterSepSymbol) {
+            return ((IterSepSymbol) innerSymbol).getSymbol();
+        } else if(innerSymbol instanceof IterStarSymbol) {
+            return ((IterStarSymbol) innerSymbol).getSymbol();
+        } else if(innerSymbol instanceof IterStarSepSymbol) {
+            return ((IterStarSepSymbol) innerSymbol).getSymbol();
+        } else if(innerSymbol instanceof OptionalSymbol) {
+            return ((OptionalSymbol) innerSymbol).getSymbol();
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,331 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.IterSymbol;
+import org.metaborg.sdf2table.grammar.LexicalSymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+import org.metaborg.sdf2table.grammar.Symbol;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+/**
+ * Enumerates the terms of a grammar by size, smallest first.
+ *
+ * The number of terms of every symbol and size is memoised, so the n-th term of a given size is constructed directly
+ * (unranked) instead of materialising all smaller terms. Sizes follow {@link MinimumSizeTable}: a production costs one
+ * plus its children, a lexical symbol, a None and an empty list cost one, and a non-empty list costs its elements.
+ * Every lexical symbol is enumerated as a single lexeme, which is drawn from the seed of the run and the symbol only, so
+ * the same rank gives the same term however many terms were generated or enumerated before.
+ */
+public class Enumerator {
+    private final Generator generator;
+    private final Table<ISymbol, Integer, BigInteger> symbolCounts;
+    private final Table<List<ISymbol>, Integer, BigInteger> sequenceCounts;
+    private final Table<Symbol, Integer, BigInteger> listCounts;
+    private final Map<ISymbol, String> lexemes;
+
+    public Enumerator(Generator generator) {
+        this.generator = generator;
+        this.symbolCounts = HashBasedTable.create();
+        this.sequenceCounts = HashBasedTable.create();
+        this.listCounts = HashBasedTable.create();
+        this.lexemes = new HashMap<>();
+    }
+
+    public Iterator<IStrategoTerm> enumerate(int maxSize) {
+        return enumerate(generator.getStartSymbol(), maxSize);
+    }
+
+    public Iterator<IStrategoTerm> enumerate(ISymbol symbol, int maxSize) {
+        return new Iterator<IStrategoTerm>() {
+            private int size = 0;
+            private BigInteger rank = BigInteger.ZERO;
+            private BigInteger count = BigInteger.ZERO;
+
+            @Override
+            public boolean hasNext() {
+                while(rank.compareTo(count) >= 0) {
+                    if(size >= maxSize) {
+                        return false;
+                    }
+
+                    size++;
+                    rank = BigInteger.ZERO;
+                    count = count(symbol, size);
+                }
+
+                return true;
+            }
+
+            @Override
+            public IStrategoTerm next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                IStrategoTerm term = unrank(symbol, size, rank);
+                rank = rank.add(BigInteger.ONE);
+
+                return term;
+            }
+        };
+    }
+
+    public BigInteger count(ISymbol symbol, int size) {
+        if(size <= 0) {
+            return BigInteger.ZERO;
+        }
+
+        BigInteger count = symbolCounts.get(symbol, size);
+
+        if(count == null) {
+            count = computeCount(symbol, size);
+            symbolCounts.put(symbol, size, count);
+        }
+
+        return count;
+    }
+
+    public IStrategoTerm unrank(ISymbol symbol, int size, BigInteger rank) {
+        if(rank.signum() < 0 || rank.compareTo(count(symbol, size)) >= 0) {
+            throw new IllegalArgumentException("Rank " + rank + " out of bounds for " + symbol + " of size " + size);
+        }
+
+        if(symbol instanceof LexicalSymbol) {
+            return generator.termFactory.makeString(symbol, lexeme(symbol));
+        } else if(symbol instanceof ContextFreeSymbol) {
+            Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+            if(innerSymbol instanceof IterSymbol) {
+                return unrankList(element(((IterSymbol) innerSymbol).getSymbol()), true, size, rank);
+            } else if(innerSymbol instanceof IterSepSymbol) {
+                return unrankList(element(((IterSepSymbol) innerSymbol).getSymbol()), true, size, rank);
+            } else if(innerSymbol instanceof IterStarSymbol) {
+                return unrankList(element(((IterStarSymbol) innerSymbol).getSymbol()), false, size, rank);
+            } else if(innerSymbol instanceof IterStarSepSymbol) {
+                return unrankList(element(((IterStarSepSymbol) innerSymbol).getSymbol()), false, size, rank);
+            } else if(innerSymbol instanceof OptionalSymbol) {
+                return unrankOptional(element(((OptionalSymbol) innerSymbol).getSymbol()), size, rank);
+            }
+        }
+
+        for(IProduction production : generator.productionsMap.get(symbol)) {
+            BigInteger productionCount = countProduction(production, size);
+
+            if(rank.compareTo(productionCount) < 0) {
+                return unrankProduction(production, size, rank);
+            }
+
+            rank = rank.subtract(productionCount);
+        }
+
+        throw new IllegalStateException("Rank exceeds the number of terms of " + symbol);
+    }
+
+    private BigInteger computeCount(ISymbol symbol, int size) {
+        if(symbol instanceof LexicalSymbol) {
+            return size == 1 ? BigInteger.ONE : BigInteger.ZERO;
+        } else if(symbol instanceof ContextFreeSymbol) {
+            Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+            if(innerSymbol instanceof IterSymbol) {
+                return countList(element(((IterSymbol) innerSymbol).getSymbol()), size);
+            } else if(innerSymbol instanceof IterSepSymbol) {
+                return countList(element(((IterSepSymbol) innerSymbol).getSymbol()), size);
+            } else if(innerSymbol instanceof IterStarSymbol) {
+                return countEmpty(size).add(countList(element(((IterStarSymbol) innerSymbol).getSymbol()), size));
+            } else if(innerSymbol instanceof IterStarSepSymbol) {
+                return countEmpty(size).add(countList(element(((IterStarSepSymbol) innerSymbol).getSymbol()), size));
+            } else if(innerSymbol instanceof OptionalSymbol) {
+                return countEmpty(size).add(count(element(((OptionalSymbol) innerSymbol).getSymbol()), size - 1));
+            }
+        }
+
+        BigInteger count = BigInteger.ZERO;
+
+        for(IProduction production : generator.productionsMap.get(symbol)) {
+            count = count.add(countProduction(production, size));
+        }
+
+        return count;
+    }
+
+    private BigInteger countProduction(IProduction production, int size) {
+        List<ISymbol> rhsSymbols = generator.cleanRhs(production.rightHand());
+
+        if(rhsSymbols.isEmpty() && !generator.getConstructor(production).isPresent()) {
+            return BigInteger.ZERO;
+        }
+
+        return countSequence(rhsSymbols, size - 1);
+    }
+
+    private BigInteger countSequence(List<ISymbol> symbols, int size) {
+        if(symbols.isEmpty()) {
+            return size == 0 ? BigInteger.ONE : BigInteger.ZERO;
+        }
+
+        if(size < symbols.size()) {
+            return BigInteger.ZERO;
+        }
+
+        BigInteger count = sequenceCounts.get(symbols, size);
+
+        if(count == null) {
+            count = BigInteger.ZERO;
+
+            for(int headSize = 1; headSize <= size; headSize++) {
+                BigInteger headCount = count(symbols.get(0), headSize);
+
+                if(headCount.signum() > 0) {
+                    count = count.add(headCount.multiply(countSequence(tail(symbols), size - headSize)));
+                }
+            }
+
+            sequenceCounts.put(symbols, size, count);
+        }
+
+        return count;
+    }
+
+    // The number of non-empty lists of the given element symbol and size
+    private BigInteger countList(Symbol element, int size) {
+        BigInteger count = listCounts.get(element, size);
+
+        if(count == null) {
+            count = BigInteger.ZERO;
+
+            for(int headSize = 1; headSize <= size; headSize++) {
+                BigInteger headCount = count(element, headSize);
+
+                if(headCount.signum() > 0) {
+                    count = count.add(headCount.multiply(countTail(element, size - headSize)));
+                }
+            }
+
+            listCounts.put(element, size, count);
+        }
+
+        return count;
+    }
+
+    private BigInteger countTail(Symbol element, int size) {
+        if(size == 0) {
+            return BigInteger.ONE;
+        }
+
+        return countList(element, size);
+    }
+
+    private BigInteger countEmpty(int size) {
+        return size == 1 ? BigInteger.ONE : BigInteger.ZERO;
+    }
+
+    private IStrategoTerm unrankProduction(IProduction production, int size, BigInteger rank) {
+        List<IStrategoTerm> children = unrankSequence(generator.cleanRhs(production.rightHand()), size - 1, rank);
+        Optional<String> constructor = generator.getConstructor(production);
+
+        if(constructor.isPresent()) {
+            return generator.termFactory.makeAppl(production.leftHand(), constructor.get(), children);
+        }
+
+        return children.get(0);
+    }
+
+    private List<IStrategoTerm> unrankSequence(List<ISymbol> symbols, int size, BigInteger rank) {
+        if(symbols.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        for(int headSize = 1; headSize <= size; headSize++) {
+            BigInteger headCount = count(symbols.get(0), headSize);
+            BigInteger tailCount = countSequence(tail(symbols), size - headSize);
+            BigInteger combinations = headCount.multiply(tailCount);
+
+            if(rank.compareTo(combinations) < 0) {
+                BigInteger[] ranks = rank.divideAndRemainder(tailCount);
+                List<IStrategoTerm> children = unrankSequence(tail(symbols), size - headSize, ranks[1]);
+                children.add(0, unrank(symbols.get(0), headSize, ranks[0]));
+
+                return children;
+            }
+
+            rank = rank.subtract(combinations);
+        }
+
+        throw new IllegalStateException("Rank exceeds the number of sequences of " + symbols);
+    }
+
+    private IStrategoTerm unrankList(Symbol element, boolean nonEmpty, int size, BigInteger rank) {
+        Symbol listSymbol = nonEmpty ? generator.gf.createIterSymbol(element) : generator.gf.createIterStarSymbol(element);
+
+        if(!nonEmpty && size == 1) {
+            if(rank.signum() == 0) {
+                return generator.termFactory.makeList(listSymbol);
+            }
+
+            rank = rank.subtract(BigInteger.ONE);
+        }
+
+        List<IStrategoTerm> children = new ArrayList<>();
+
+        while(size > 0) {
+            for(int headSize = 1; headSize <= size; headSize++) {
+                BigInteger headCount = count(element, headSize);
+                BigInteger tailCount = countTail(element, size - headSize);
+                BigInteger combinations = headCount.multiply(tailCount);
+
+                if(rank.compareTo(combinations) < 0) {
+                    BigInteger[] ranks = rank.divideAndRemainder(tailCount);
+                    children.add(unrank(element, headSize, ranks[0]));
+                    rank = ranks[1];
+                    size -= headSize;
+
+                    break;
+                }
+
+                rank = rank.subtract(combinations);
+            }
+        }
+
+        return generator.termFactory.makeList(listSymbol, children.toArray(new IStrategoTerm[0]));
+    }
+
+    private IStrategoTerm unrankOptional(Symbol element, int size, BigInteger rank) {
+        OptionalSymbol optionalSymbol = generator.gf.createOptionalSymbol(element);
+
+        if(size == 1) {
+            return generator.termFactory.makeNone(optionalSymbol);
+        }
+
+        return generator.termFactory.makeSome(optionalSymbol, unrank(element, size - 1, rank));
+    }
+
+    private Symbol element(Symbol symbol) {
+        return generator.gf.createContextFreeSymbol(symbol);
+    }
+
+    private String lexeme(ISymbol symbol) {
+        return lexemes.computeIfAbsent(symbol, generator::generateFixedLexicalSymbol);
+    }
+
+    private static List<ISymbol> tail(List<ISymbol> symbols) {
+        return symbols.subList(1, symbols.size());
+    }
+}
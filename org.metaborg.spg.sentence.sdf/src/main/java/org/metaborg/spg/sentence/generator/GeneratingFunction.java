@@ -0,0 +1,166 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.IterSymbol;
+import org.metaborg.sdf2table.grammar.LexicalSymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+
+import com.google.common.collect.ListMultimap;
+
+/**
+ * Evaluates the generating functions of the grammar, i.e. for every symbol the sum over its derivations d of
+ * x^size(d), using the same size accounting as {@link MinimumSizeTable}: the elements of a list carry its size, except
+ * that an empty list costs one.
+ *
+ * The values are computed by fixpoint iteration from zero, which converges to the least solution of the system
+ * whenever x lies below the singularity of the start symbol.
+ */
+public class GeneratingFunction {
+    private static final int MAX_ITERATIONS = 10000;
+    private static final double PRECISION = 1e-10;
+    private static final double DIVERGENCE = 1e15;
+
+    private final Generator generator;
+    private final ListMultimap<ISymbol, IProduction> productionsMap;
+    private final GrammarFactory gf;
+
+    public GeneratingFunction(Generator generator, ListMultimap<ISymbol, IProduction> productionsMap) {
+        this.generator = generator;
+        this.productionsMap = productionsMap;
+        this.gf = new GrammarFactory();
+    }
+
+    public Optional<Evaluation> evaluate(double x) {
+        Evaluation evaluation = new Evaluation(x);
+
+        for(int i = 0; i < MAX_ITERATIONS; i++) {
+            Map<ISymbol, Double> symbolValues = new HashMap<>();
+            Map<IProduction, Double> productionValues = new HashMap<>();
+            double change = 0;
+
+            for(IProduction production : productionsMap.values()) {
+                double value = evaluation.compute(production);
+
+                if(Double.isNaN(value) || value > DIVERGENCE) {
+                    return Optional.empty();
+                }
+
+                productionValues.put(production, value);
+                symbolValues.merge(production.leftHand(), value, Double::sum);
+                change = Math.max(change, value - evaluation.get(production));
+            }
+
+            evaluation = new Evaluation(x, symbolValues, productionValues);
+
+            if(change < PRECISION) {
+                return Optional.of(evaluation);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public Optional<Double> expectedSize(ISymbol symbol, double x) {
+        double h = 1e-6;
+        Optional<Evaluation> evaluation = evaluate(x);
+        Optional<Evaluation> shifted = evaluate(x * (1 + h));
+
+        if(!evaluation.isPresent() || !shifted.isPresent()) {
+            return Optional.empty();
+        }
+
+        double value = evaluation.get().get(symbol);
+        double shiftedValue = shifted.get().get(symbol);
+
+        if(value <= 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of((Math.log(shiftedValue) - Math.log(value)) / Math.log(1 + h));
+    }
+
+    public class Evaluation {
+        private final double x;
+        private final Map<ISymbol, Double> symbolValues;
+        private final Map<IProduction, Double> productionValues;
+
+        private Evaluation(double x) {
+            this(x, new HashMap<>(), new HashMap<>());
+        }
+
+        private Evaluation(double x, Map<ISymbol, Double> symbolValues, Map<IProduction, Double> productionValues) {
+            this.x = x;
+            this.symbolValues = symbolValues;
+            this.productionValues = productionValues;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double get(ISymbol symbol) {
+            if(symbol instanceof LexicalSymbol) {
+                return x;
+            } else if(symbol instanceof ContextFreeSymbol) {
+                ISymbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+                if(innerSymbol instanceof IterSymbol) {
+                    return plus(get(gf.createContextFreeSymbol(((IterSymbol) innerSymbol).getSymbol())));
+                } else if(innerSymbol instanceof IterSepSymbol) {
+                    return plus(get(gf.createContextFreeSymbol(((IterSepSymbol) innerSymbol).getSymbol())));
+                } else if(innerSymbol instanceof IterStarSymbol) {
+                    return star(get(gf.createContextFreeSymbol(((IterStarSymbol) innerSymbol).getSymbol())));
+                } else if(innerSymbol instanceof IterStarSepSymbol) {
+                    return star(get(gf.createContextFreeSymbol(((IterStarSepSymbol) innerSymbol).getSymbol())));
+                } else if(innerSymbol instanceof OptionalSymbol) {
+                    return x * (1 + get(gf.createContextFreeSymbol(((OptionalSymbol) innerSymbol).getSymbol())));
+                }
+            }
+
+            return symbolValues.getOrDefault(symbol, 0.0);
+        }
+
+        public double get(IProduction production) {
+            return productionValues.getOrDefault(production, 0.0);
+        }
+
+        private double compute(IProduction production) {
+            List<ISymbol> rhsSymbols = generator.cleanRhs(production.rightHand());
+
+            if(rhsSymbols.isEmpty() && !generator.getConstructor(production).isPresent()) {
+                return 0;
+            }
+
+            double value = x;
+
+            for(ISymbol rhsSymbol : rhsSymbols) {
+                value *= get(rhsSymbol);
+            }
+
+            return value;
+        }
+
+        private double star(double value) {
+            return x + plus(value);
+        }
+
+        private double plus(double value) {
+            if(value >= 1) {
+                return Double.NaN;
+            }
+
+            return value / (1 - value);
+        }
+    }
+}
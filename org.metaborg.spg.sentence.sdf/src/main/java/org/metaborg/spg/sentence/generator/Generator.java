@@ -1,14 +1,15 @@
 package org.metaborg.spg.sentence.generator;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import org.metaborg.parsetable.characterclasses.CharacterClassFactory;
 import org.metaborg.parsetable.characterclasses.ICharacterClass;
 import org.metaborg.sdf2table.grammar.*;
 import org.metaborg.sdf2table.io.ParseTableIO;
 import org.metaborg.spg.sentence.random.IRandom;
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
 import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
 import org.spoofax.interpreter.terms.IStrategoList;
 import org.spoofax.interpreter.terms.IStrategoTerm;
@@ -21,200 +22,494 @@ public class Generator {
     public static final int MINIMUM_PRINTABLE = 32;
     public static final int MAXIMUM_PRINTABLE = 126;
 
-    private final GeneratorTermFactory termFactory;
-    private final IRandom random;
-    private final String startSymbol;
+    private static final int LEXEME_CAPACITY = 16;
+    private static final int HITS_CAPACITY = 64;
+
+    protected final GeneratorTermFactory termFactory;
+    protected final IRandom random;
+    private final IRandom seeds;
+    protected final String startSymbol;
     private final NormGrammar grammar;
-    private final ListMultimap<ISymbol, IProduction> productionsMap;
-    private final GrammarFactory gf;
+    protected final ListMultimap<ISymbol, IProduction> productionsMap;
+    private final MinimumSizeTable minimumSizes;
+    private final CompiledGrammar compiledGrammar;
+    private final Map<CharacterClassSymbol, char[]> printableCharacters;
+    protected final ListLengthStrategy listLength;
+    private final ProductionCoverage coverage;
+    private final ProductionWeights weights;
+    private final GeneratorConfig.Selection selection;
+    private final SelectionFeedback feedback;
+    protected final GrammarFactory gf;
+    private double[] selectionWeights;
+    private int[] hits;
+    private int hitCount;
 
     @Inject public Generator(GeneratorTermFactory termFactory, IRandom random, String startSymbol,
         NormGrammar grammar) {
+        this(termFactory, random, startSymbol, grammar, ListLengthStrategy.DEFAULT, GeneratorConfig.Selection.UNIFORM);
+    }
+
+    public Generator(GeneratorTermFactory termFactory, IRandom random, String startSymbol, NormGrammar grammar,
+        ListLengthStrategy listLength, GeneratorConfig.Selection selection) {
         this.termFactory = termFactory;
         this.random = random;
+        this.seeds = random;
         this.startSymbol = startSymbol;
         this.grammar = grammar;
         this.gf = new GrammarFactory();
 
         Collection<IProduction> productions = retainRealProductions(grammar.getCacheProductionsRead().values());
         this.productionsMap = createProductionMap(productions);
+        this.minimumSizes = new MinimumSizeTable(this, productionsMap);
+        this.compiledGrammar = new CompiledGrammar(this, productionsMap, minimumSizes);
+        this.printableCharacters = new ConcurrentHashMap<>();
+        this.listLength = listLength;
+        this.coverage = new ProductionCoverage(compiledGrammar);
+        this.weights = new ProductionWeights(compiledGrammar);
+        this.selection = selection;
+        this.feedback = new SelectionFeedback(selection, compiledGrammar, coverage, weights);
+    }
+
+    protected Generator(Generator generator, IRandom random) {
+        this.termFactory = generator.termFactory;
+        this.random = random;
+        this.seeds = generator.seeds;
+        this.startSymbol = generator.startSymbol;
+        this.grammar = generator.grammar;
+        this.gf = new GrammarFactory();
+        this.productionsMap = generator.productionsMap;
+        this.minimumSizes = generator.minimumSizes;
+        this.compiledGrammar = generator.compiledGrammar;
+        this.printableCharacters = generator.printableCharacters;
+        this.listLength = generator.listLength;
+        this.coverage = generator.coverage;
+        this.weights = generator.weights;
+        this.selection = generator.selection;
+        this.feedback = generator.feedback;
+    }
+
+    public Generator withRandom(IRandom random) {
+        return new Generator(this, random);
     }
 
     public Optional<IStrategoTerm> generate(int size) {
-        ContextFreeSymbol symbol = gf.createContextFreeSymbol(gf.createSort(startSymbol));
-        return generateSymbol(symbol, size);
+        return generateSymbol(getStartSymbol(), size);
     }
 
-    public Optional<IStrategoTerm> generateSymbol(ISymbol symbol, int size) {
-        if(size <= 0) {
-            return Optional.empty();
+    // Term number index of a run, derived from the seed of the original stream and the index only, so any term can be
+    // regenerated without generating the terms before it. Copies made with withRandom derive the same terms.
+    public Optional<IStrategoTerm> generate(long index, int size) {
+        Generator generator = withRandom(seeds.fork(index));
+
+        if(selection == GeneratorConfig.Selection.UNIFORM) {
+            return generator.generate(size);
         }
 
-        if(symbol instanceof LexicalSymbol) {
-            String generatedString = generateLexicalSymbol(symbol);
-
-            return Optional.of(termFactory.makeString(symbol, generatedString));
-        } else if(symbol instanceof ContextFreeSymbol) {
-            Symbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
-
-            if(innerSymbol instanceof IterSymbol) {
-                return generateIter(gf.createContextFreeSymbol(((IterSymbol) innerSymbol).getSymbol()), size);
-            } else if(innerSymbol instanceof IterSepSymbol) {
-                return generateIter(gf.createContextFreeSymbol(((IterSepSymbol) innerSymbol).getSymbol()), size);
-            } else if(innerSymbol instanceof IterStarSymbol) {
-                return generateIterStar(gf.createContextFreeSymbol(((IterStarSymbol) innerSymbol).getSymbol()), size);
-            } else if(innerSymbol instanceof IterStarSepSymbol) {
-                return generateIterStar(gf.createContextFreeSymbol(((IterStarSepSymbol) innerSymbol).getSymbol()), size);
-            } else if(innerSymbol instanceof OptionalSymbol) {
-                return generateOptional(gf.createContextFreeSymbol(((OptionalSymbol) innerSymbol).getSymbol()), size);
-            } else if(innerSymbol instanceof Sort) {
-                return generateCf(symbol, size);
-            }
-        } else {
-            return generateCf(symbol, size);
+        // The other selections select with the weights of the batch of the index and record its hits for later batches
+        generator.selectionWeights = feedback.await(index);
+
+        if(generator.selectionWeights == null) {
+            return Optional.empty();
         }
 
-        throw new IllegalStateException("Unknown symbol: " + symbol);
-    }
+        generator.hits = new int[HITS_CAPACITY];
 
-    private Optional<IStrategoTerm> generateIterStar(Symbol symbol, int size) {
-        IterStarSymbol iterStarSymbol = gf.createIterStarSymbol(symbol);
+        Optional<IStrategoTerm> term = generator.generate(size);
+        feedback.generated(index, Arrays.copyOf(generator.hits, generator.hitCount));
 
-        if(random.flip()) {
-            return Optional.of(termFactory.makeList(iterStarSymbol));
-        } else {
-            Optional<IStrategoTerm> headOpt = generateSymbol(symbol, size / 2);
+        return term;
+    }
+
+    public long getTermSeed(long index) {
+        return seeds.fork(index).getSeed();
+    }
 
-            if(headOpt.isPresent()) {
-                Optional<IStrategoTerm> tailOpt = generateIterStar(symbol, size / 2);
+    // The term with the given term seed, as reported by getTermSeed, without knowing the seed of the run or the index.
+    // For uniform selection it equals the term with that index; the other selections also depend on what they learned.
+    public Optional<IStrategoTerm> generateFromSeed(long seed, int size) {
+        return withRandom(seeds.withSeed(seed)).generate(size);
+    }
 
-                if(tailOpt.isPresent()) {
-                    IStrategoTerm head = headOpt.get();
-                    IStrategoList tail = (IStrategoList) tailOpt.get();
-                    IStrategoList list = termFactory.makeListCons(iterStarSymbol, head, tail);
+    protected ContextFreeSymbol getStartSymbol() {
+        return gf.createContextFreeSymbol(gf.createSort(startSymbol));
+    }
 
-                    return Optional.of(list);
-                }
-            }
+    public Optional<IStrategoTerm> generateSymbol(ISymbol symbol, int size) {
+        if(!compiledGrammar.contains(symbol)) {
+            return Optional.empty();
         }
 
-        return Optional.empty();
+        return generateSymbol(compiledGrammar.symbolId(symbol), size);
     }
 
-    private Optional<IStrategoTerm> generateIter(Symbol symbol, int size) {
-        IterSymbol iterSymbol = gf.createIterSymbol(symbol);
-        Optional<IStrategoTerm> headOpt = generateSymbol(symbol, size / 2);
+    protected Optional<IStrategoTerm> generateSymbol(int symbol, int size) {
+        return run(symbolFrame(symbol, size));
+    }
 
-        if(headOpt.isPresent()) {
-            Optional<IStrategoTerm> tailOpt = generateIterStar(symbol, size / 2);
+    public String generateLex(ISymbol symbol) {
+        StringBuilder builder = new StringBuilder();
+        appendLex(symbol, builder);
 
-            if(tailOpt.isPresent()) {
-                IStrategoTerm head = headOpt.get();
-                IStrategoList tail = (IStrategoList) tailOpt.get();
+        return builder.toString();
+    }
 
-                return Optional.of(termFactory.makeListCons(iterSymbol, head, tail));
-            }
-        }
+    public String generateCharacterClass(CharacterClassSymbol characterClassSymbol) {
+        StringBuilder builder = new StringBuilder(1);
+        appendCharacterClass(characterClassSymbol, builder);
 
-        return Optional.empty();
+        return builder.toString();
     }
 
-    private Optional<IStrategoTerm> generateOptional(Symbol symbol, int size) {
-        OptionalSymbol optionalSymbol = gf.createOptionalSymbol(symbol);
+    public String generateLexicalSymbol(ISymbol symbol) {
+        StringBuilder builder = new StringBuilder(LEXEME_CAPACITY);
+        appendLexicalSymbol(symbol, builder);
 
-        if(random.flip()) {
-            return Optional.of(termFactory.makeNone(optionalSymbol));
-        } else {
-            Optional<IStrategoTerm> termOpt = generateSymbol(symbol, size - 1);
+        return builder.toString();
+    }
 
-            return termOpt.map(term -> termFactory.makeSome(optionalSymbol, term));
-        }
+    // A lexeme of the given symbol determined by the seed of the run and the symbol only, whatever was generated before
+    String generateFixedLexicalSymbol(ISymbol symbol) {
+        return withRandom(seeds.fork(symbol.toString())).generateLexicalSymbol(symbol);
     }
 
-    public String generateLex(ISymbol symbol) {
+    private void appendLex(ISymbol symbol, StringBuilder builder) {
         if(symbol instanceof CharacterClassSymbol) {
-            return generateCharacterClass(((CharacterClassSymbol) symbol));
+            appendCharacterClass((CharacterClassSymbol) symbol, builder);
         } else if(symbol instanceof LexicalSymbol || symbol instanceof Sort) {
-            return generateLexicalSymbol(symbol);
+            appendLexicalSymbol(symbol, builder);
+        } else {
+            throw new IllegalStateException("Unknown symbol: " + symbol);
+        }
+    }
+
+    private void appendCharacterClass(CharacterClassSymbol characterClassSymbol, StringBuilder builder) {
+        char[] characters = printableCharacters.computeIfAbsent(characterClassSymbol, this::computePrintableCharacters);
+
+        if(characters.length != 0) {
+            builder.append(characters[random.fromRange(characters.length)]);
         }
+    }
+
+    private void appendLexicalSymbol(ISymbol symbol, StringBuilder builder) {
+        List<IProduction> productions = productionsMap.get(symbol);
+
+        if(productions.isEmpty()) {
+            throw new IllegalStateException("No productions found for symbol " + symbol);
+        }
+
+        IProduction production = productions.get(random.fromRange(productions.size()));
 
-        throw new IllegalStateException("Unknown symbol: " + symbol);
+        for(ISymbol rhsSymbol : production.rightHand()) {
+            appendLex(rhsSymbol, builder);
+        }
     }
 
-    public String generateCharacterClass(CharacterClassSymbol characterClassSymbol) {
+    private char[] computePrintableCharacters(CharacterClassSymbol characterClassSymbol) {
         ICharacterClass printableRange = characterClassSymbol.getCC()
             .intersection(ParseTableIO.getCharacterClassFactory().fromRange(MINIMUM_PRINTABLE, MAXIMUM_PRINTABLE));
 
-        List<Integer> list = new ArrayList<>(MAXIMUM_PRINTABLE);
+        char[] characters = new char[MAXIMUM_PRINTABLE - MINIMUM_PRINTABLE + 1];
+        int count = 0;
+
         for(int i = MINIMUM_PRINTABLE; i <= MAXIMUM_PRINTABLE; i++) {
             if(printableRange.contains(i)) {
-                list.add(i);
+                characters[count++] = (char) i;
             }
         }
 
-        if(list.size() == 0)
-            return "";
+        return Arrays.copyOf(characters, count);
+    }
+
+    public Optional<IStrategoTerm> generateCf(ISymbol symbol, int size) {
+        if(!compiledGrammar.contains(symbol)) {
+            return Optional.empty();
+        }
 
-        return CharacterClassFactory.intToString(random.fromList(list));
+        return generateCf(compiledGrammar.symbolId(symbol), size);
     }
 
-    public String generateLexicalSymbol(ISymbol symbol) {
-        List<IProduction> productions = productionsMap.get(symbol);
+    protected Optional<IStrategoTerm> generateCf(int symbol, int size) {
+        return run(new CfFrame(symbol, size));
+    }
 
-        if(productions.isEmpty()) {
-            throw new IllegalStateException("No productions found for symbol " + symbol);
+    public Optional<IStrategoTerm> generateProduction(IProduction production, int size) {
+        return generateProduction(compiledGrammar.productionId(production), size);
+    }
+
+    protected Optional<IStrategoTerm> generateProduction(int production, int size) {
+        return run(new ProductionFrame(production, size));
+    }
+
+    /*
+     * Generation runs on an explicit stack of frames instead of the JVM stack, so the depth of a term and the length of
+     * its lists are bounded by the heap only. A frame is stepped with the term its last child produced (null if the
+     * child failed) and either returns a new child frame or completes with its own term.
+     */
+    protected Optional<IStrategoTerm> run(Frame root) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        IStrategoTerm value = null;
+
+        stack.push(root);
+
+        while(!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            Frame child = frame.step(value);
+
+            if(child != null) {
+                stack.push(child);
+            } else {
+                stack.pop();
+                value = frame.result;
+            }
         }
 
-        IProduction production = random.fromList(productions);
+        return Optional.ofNullable(value);
+    }
+
+    private Frame symbolFrame(int symbol, int size) {
+        if(size <= 0 || size < compiledGrammar.minimumSize(symbol)) {
+            return new ResultFrame(null);
+        }
 
-        return production.rightHand().stream().map(this::generateLex).collect(Collectors.joining());
+        switch(compiledGrammar.kind(symbol)) {
+            case CompiledGrammar.LEXICAL:
+                ISymbol lexicalSymbol = compiledGrammar.symbol(symbol);
+
+                return new ResultFrame(termFactory.makeString(lexicalSymbol, generateLexicalSymbol(lexicalSymbol)));
+            case CompiledGrammar.ITER:
+                return new ListFrame(symbol, size, true);
+            case CompiledGrammar.ITER_STAR:
+                return new ListFrame(symbol, size, false);
+            case CompiledGrammar.OPTIONAL:
+                return new OptionalFrame(symbol, size);
+            case CompiledGrammar.SORT:
+                return new CfFrame(symbol, size);
+            default:
+                throw new IllegalStateException("Unknown symbol: " + compiledGrammar.symbol(symbol));
+        }
     }
 
-    public Optional<IStrategoTerm> generateCf(ISymbol symbol, int size) {
-        List<IProduction> productions = productionsMap.get(symbol);
+    protected static abstract class Frame {
+        protected IStrategoTerm result;
 
-        for(IProduction production : random.shuffle(productions)) {
-            Optional<IStrategoTerm> term = generateProduction(production, size);
+        public abstract Frame step(IStrategoTerm child);
+    }
 
-            if(term.isPresent()) {
-                return term;
+    protected static class ResultFrame extends Frame {
+        public ResultFrame(IStrategoTerm result) {
+            this.result = result;
+        }
+
+        @Override
+        public Frame step(IStrategoTerm child) {
+            return null;
+        }
+    }
+
+    private class CfFrame extends Frame {
+        private final int size;
+        private final int[] candidates;
+        private int count;
+        private boolean started;
+
+        public CfFrame(int symbol, int size) {
+            int[] productions = compiledGrammar.productions(symbol);
+
+            this.size = size;
+            this.candidates = new int[productions.length];
+
+            for(int production : productions) {
+                if(compiledGrammar.productionMinimumSize(production) <= size) {
+                    candidates[count++] = production;
+                }
             }
         }
 
-        return Optional.empty();
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(started && child != null) {
+                result = child;
+
+                return null;
+            }
+
+            started = true;
+
+            if(count == 0) {
+                return null;
+            }
+
+            // Draw the candidates in random order without shuffling up front, most attempts succeed on the first draw
+            int index = selection == GeneratorConfig.Selection.UNIFORM ? random.fromRange(count) : drawWeighted();
+            int production = candidates[index];
+
+            candidates[index] = candidates[--count];
+
+            return new ProductionFrame(production, size);
+        }
+
+        private int drawWeighted() {
+            double[] productionWeights = selectionWeights != null ? selectionWeights : feedback.current();
+            double[] candidateWeights = new double[count];
+            double total = 0;
+
+            for(int i = 0; i < count; i++) {
+                candidateWeights[i] = productionWeights[candidates[i]];
+                total += candidateWeights[i];
+            }
+
+            double point = random.nextDouble() * total;
+
+            for(int i = 0; i < count - 1; i++) {
+                point -= candidateWeights[i];
+
+                if(point < 0) {
+                    return i;
+                }
+            }
+
+            return count - 1;
+        }
     }
 
-    public Optional<IStrategoTerm> generateProduction(IProduction production, int size) {
-        List<ISymbol> rhsSymbols = cleanRhs(production.rightHand());
-        List<IStrategoTerm> children = new ArrayList<>();
+    private class ProductionFrame extends Frame {
+        private final int production;
+        private final int[] rhsSymbols;
+        private final IStrategoTerm[] children;
+        private final int extraSize;
+        private int next;
 
-        int childSize = (size - 1) / Math.max(1, rhsSymbols.size());
+        public ProductionFrame(int production, int size) {
+            this.production = production;
+            this.rhsSymbols = compiledGrammar.rhs(production);
+            this.children = new IStrategoTerm[rhsSymbols.length];
 
-        for(ISymbol rhsSymbol : rhsSymbols) {
-            Optional<IStrategoTerm> childTerm = generateSymbol(rhsSymbol, childSize);
+            // Every child gets its minimum size, the remainder of the budget is divided evenly
+            this.extraSize = (size - compiledGrammar.productionMinimumSize(production)) / Math.max(1, rhsSymbols.length);
+        }
 
-            if(childTerm.isPresent()) {
-                children.add(childTerm.get());
-            } else {
-                break;
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(next > 0) {
+                if(child == null) {
+                    return null;
+                }
+
+                children[next - 1] = child;
+            }
+
+            if(next < rhsSymbols.length) {
+                int rhsSymbol = rhsSymbols[next++];
+
+                return symbolFrame(rhsSymbol, compiledGrammar.minimumSize(rhsSymbol) + extraSize);
+            }
+
+            String constructor = compiledGrammar.constructor(production);
+
+            if(constructor != null) {
+                ISymbol lhs = compiledGrammar.production(production).leftHand();
+
+                result = termFactory.makeAppl(constructor, children, lhs);
+            } else if(children.length != 0) {
+                result = children[0];
+            }
+
+            if(result != null) {
+                hit(production);
             }
+
+            return null;
         }
+    }
 
-        if(children.size() == rhsSymbols.size()) {
-            Optional<String> constructor = getConstructor(production);
+    private class ListFrame extends Frame {
+        private final int listSymbol;
+        private final int element;
+        private final boolean nonEmpty;
+        private final IStrategoTerm[] elements;
+        private final int elementSize;
+        private final int extraSize;
+        private int next;
+
+        public ListFrame(int listSymbol, int size, boolean nonEmpty) {
+            this.listSymbol = listSymbol;
+            this.element = compiledGrammar.element(listSymbol);
+            this.nonEmpty = nonEmpty;
+
+            // The length is chosen up front and the budget is divided evenly over the elements
+            int minimumSize = compiledGrammar.minimumSize(element);
+            int length = listLength.length(nonEmpty ? 1 : 0, size / minimumSize, random);
+
+            this.elements = new IStrategoTerm[length];
+            this.elementSize = length == 0 ? 0 : size / length;
+            this.extraSize = length == 0 ? 0 : size % length;
+        }
 
-            if(constructor.isPresent()) {
-                return Optional.of(termFactory.makeAppl(production.leftHand(), constructor.get(), children));
-            } else {
-                if(children.size() == 0) {
-                    return Optional.empty();
+        @Override
+        public Frame step(IStrategoTerm child) {
+            if(next > 0) {
+                if(child == null) {
+                    return null;
                 }
 
-                return Optional.of(children.get(0));
+                elements[next - 1] = child;
+            }
+
+            if(next < elements.length) {
+                int size = elementSize + (next < extraSize ? 1 : 0);
+                next++;
+
+                return symbolFrame(element, size);
+            }
+
+            IterStarSymbol iterStarSymbol = compiledGrammar.iterStarSymbol(listSymbol);
+            IStrategoList list = termFactory.makeList(iterStarSymbol);
+
+            for(int i = elements.length - 1; i >= 0; i--) {
+                Symbol consSymbol = (i == 0 && nonEmpty) ? compiledGrammar.iterSymbol(listSymbol) : iterStarSymbol;
+
+                list = termFactory.makeListCons(consSymbol, elements[i], list);
             }
+
+            result = list;
+
+            return null;
         }
+    }
 
-        return Optional.empty();
+    private class OptionalFrame extends Frame {
+        private final int optionalSymbol;
+        private final int size;
+        private boolean started;
+
+        public OptionalFrame(int optionalSymbol, int size) {
+            this.optionalSymbol = optionalSymbol;
+            this.size = size;
+        }
+
+        @Override
+        public Frame step(IStrategoTerm child) {
+            OptionalSymbol symbol = compiledGrammar.optionalSymbol(optionalSymbol);
+
+            if(started) {
+                if(child != null) {
+                    result = termFactory.makeSome(symbol, child);
+                }
+
+                return null;
+            }
+
+            started = true;
+            int element = compiledGrammar.element(optionalSymbol);
+
+            if(size - 1 < compiledGrammar.minimumSize(element) || random.flip()) {
+                result = termFactory.makeNone(symbol);
+
+                return null;
+            }
+
+            return symbolFrame(element, size - 1);
+        }
     }
 
     protected Optional<String> getConstructor(IProduction production) {
@@ -245,6 +540,36 @@ public class Generator {
         // @formatter:on
     }
 
+    public MinimumSizeTable getMinimumSizes() {
+        return minimumSizes;
+    }
+
+    public CompiledGrammar getCompiledGrammar() {
+        return compiledGrammar;
+    }
+
+    public ProductionCoverage getCoverage() {
+        return coverage;
+    }
+
+    public SelectionFeedback getFeedback() {
+        return feedback;
+    }
+
+    // Uniform selection counts hits right away; the other selections count only the hits of the terms of a find, once
+    // their index is tested
+    protected void hit(int production) {
+        if(selection == GeneratorConfig.Selection.UNIFORM) {
+            coverage.hit(production);
+        } else if(hits != null) {
+            if(hitCount == hits.length) {
+                hits = Arrays.copyOf(hits, 2 * hitCount);
+            }
+
+            hits[hitCount++] = production;
+        }
+    }
+
     protected ListMultimap<ISymbol, IProduction> createProductionMap(Collection<IProduction> productions) {
         ListMultimap<ISymbol, IProduction> productionsMap = ArrayListMultimap.create();
 
@@ -20,15 +20,42 @@ public class GeneratorAttachment extends AbstractTermAttachment {
     };
 
     private final ISymbol symbol;
+    private final int size;
 
-    public GeneratorAttachment(ISymbol symbol) {
+    public GeneratorAttachment(ISymbol symbol, int size) {
         this.symbol = symbol;
+        this.size = size;
     }
 
     public ISymbol getSymbol() {
         return symbol;
     }
 
+    // The number of nodes in the term, where a list counts as one node with its elements as children
+    public int getSize() {
+        return size;
+    }
+
+    public static int getSize(IStrategoTerm term) {
+        GeneratorAttachment attachment = term.getAttachment(TYPE);
+
+        if(attachment != null) {
+            return attachment.getSize();
+        }
+
+        return getSize(term.getAllSubterms());
+    }
+
+    public static int getSize(IStrategoTerm[] children) {
+        int size = 1;
+
+        for(IStrategoTerm child : children) {
+            size += getSize(child);
+        }
+
+        return size;
+    }
+
     @Override
     public TermAttachmentType<?> getAttachmentType() {
         return TYPE;
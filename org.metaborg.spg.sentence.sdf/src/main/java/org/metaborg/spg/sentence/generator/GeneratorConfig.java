@@ -0,0 +1,67 @@
+package org.metaborg.spg.sentence.generator;
+
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
+
+public class GeneratorConfig {
+    public static final GeneratorConfig UNIFORM = new GeneratorConfig(Engine.UNIFORM, 0);
+    public static final GeneratorConfig COVERAGE_GUIDED =
+        new GeneratorConfig(Engine.UNIFORM, 0, ListLengthStrategy.DEFAULT, Selection.COVERAGE);
+    public static final GeneratorConfig ADAPTIVE =
+        new GeneratorConfig(Engine.UNIFORM, 0, ListLengthStrategy.DEFAULT, Selection.ADAPTIVE);
+
+    private final Engine engine;
+    private final int targetSize;
+    private final ListLengthStrategy listLength;
+    private final Selection selection;
+
+    public GeneratorConfig(Engine engine, int targetSize) {
+        this(engine, targetSize, ListLengthStrategy.DEFAULT, Selection.UNIFORM);
+    }
+
+    public GeneratorConfig(Engine engine, int targetSize, ListLengthStrategy listLength, Selection selection) {
+        if(engine == Engine.BOLTZMANN && targetSize < 1) {
+            throw new IllegalArgumentException("The Boltzmann engine needs a target size of at least 1.");
+        }
+
+        this.engine = engine;
+        this.targetSize = targetSize;
+        this.listLength = listLength;
+        this.selection = selection;
+    }
+
+    public static GeneratorConfig boltzmann(int targetSize) {
+        return new GeneratorConfig(Engine.BOLTZMANN, targetSize);
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    public ListLengthStrategy getListLength() {
+        return listLength;
+    }
+
+    public Selection getSelection() {
+        return selection;
+    }
+
+    public enum Engine {
+        UNIFORM,
+        BOLTZMANN
+    }
+
+    /**
+     * How the uniform engine chooses among the productions of a sort: uniformly, preferring productions that have
+     * been generated least often so far, or weighted by the feedback of earlier tests. Adaptive selection rewards
+     * sentences that parse slowly as well as ambiguous ones.
+     */
+    public enum Selection {
+        UNIFORM,
+        COVERAGE,
+        ADAPTIVE
+    }
+}
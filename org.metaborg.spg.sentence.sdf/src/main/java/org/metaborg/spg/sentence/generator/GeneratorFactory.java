@@ -17,6 +17,8 @@ import java.util.Collections;
 import java.util.List;
 
 public class GeneratorFactory {
+    public static final String STREAM = "generator";
+
     private final IResourceService resourceService;
     private final GeneratorTermFactory termFactory;
     private final IRandom random;
@@ -29,6 +31,16 @@ public class GeneratorFactory {
     }
 
     public Generator create(ILanguageImpl language, IProject project) throws Exception {
+        return create(language, project, GeneratorConfig.UNIFORM);
+    }
+
+    public Generator create(ILanguageImpl language, IProject project, GeneratorConfig config) throws Exception {
+        return create(language, project, config, random);
+    }
+
+    // Forks the stream of the generator from the given root instead of the root of the module
+    public Generator create(ILanguageImpl language, IProject project, GeneratorConfig config, IRandom root)
+        throws Exception {
         SpoofaxCommonPaths spoofaxCommonPaths = new SpoofaxCommonPaths(project.location());
 
         File syntaxMainFile = getSyntaxMainFile(spoofaxCommonPaths, language);
@@ -39,7 +51,14 @@ public class GeneratorFactory {
 
         String startSymbol = getStartSymbol(language);
 
-        return new Generator(termFactory, random, startSymbol, grammar);
+        Generator generator = new Generator(termFactory, root.fork(STREAM), startSymbol, grammar, config.getListLength(),
+            config.getSelection());
+
+        if (config.getEngine() == GeneratorConfig.Engine.BOLTZMANN) {
+            return new BoltzmannGenerator(generator, config.getTargetSize(), BoltzmannGenerator.DEFAULT_TOLERANCE);
+        }
+
+        return generator;
     }
 
     protected File getSyntaxMainFile(SpoofaxCommonPaths spoofaxCommonPaths, ILanguageImpl language) {
@@ -0,0 +1,113 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSepSymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.IterSymbol;
+import org.metaborg.sdf2table.grammar.LexicalSymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+import org.metaborg.sdf2table.grammar.Sort;
+
+import com.google.common.collect.ListMultimap;
+
+/**
+ * The smallest size budget for which the generator can derive a term from a symbol or production.
+ *
+ * The sizes follow the budget accounting of {@link Generator}: a production costs one plus the sizes of its children,
+ * a lexical symbol, an optional and a possibly empty list cost one, and a non-empty list costs as much as its first
+ * element. The table is the least fixpoint of these equations; symbols that cannot derive any finite term get
+ * {@link #INFINITE}.
+ */
+public class MinimumSizeTable {
+    public static final int INFINITE = Integer.MAX_VALUE;
+
+    private final Generator generator;
+    private final ListMultimap<ISymbol, IProduction> productionsMap;
+    private final GrammarFactory gf;
+    private final Map<ISymbol, Integer> symbolSizes;
+    private final Map<IProduction, Integer> productionSizes;
+
+    public MinimumSizeTable(Generator generator, ListMultimap<ISymbol, IProduction> productionsMap) {
+        this.generator = generator;
+        this.productionsMap = productionsMap;
+        this.gf = new GrammarFactory();
+        this.symbolSizes = new HashMap<>();
+        this.productionSizes = new HashMap<>();
+
+        computeFixpoint();
+    }
+
+    public int get(ISymbol symbol) {
+        if(symbol instanceof LexicalSymbol) {
+            return 1;
+        } else if(symbol instanceof ContextFreeSymbol) {
+            ISymbol innerSymbol = ((ContextFreeSymbol) symbol).getSymbol();
+
+            if(innerSymbol instanceof IterSymbol) {
+                return get(gf.createContextFreeSymbol(((IterSymbol) innerSymbol).getSymbol()));
+            } else if(innerSymbol instanceof IterSepSymbol) {
+                return get(gf.createContextFreeSymbol(((IterSepSymbol) innerSymbol).getSymbol()));
+            } else if(innerSymbol instanceof IterStarSymbol || innerSymbol instanceof IterStarSepSymbol
+                || innerSymbol instanceof OptionalSymbol) {
+                return 1;
+            } else if(!(innerSymbol instanceof Sort)) {
+                throw new IllegalStateException("Unknown symbol: " + symbol);
+            }
+        }
+
+        return symbolSizes.getOrDefault(symbol, INFINITE);
+    }
+
+    public int get(IProduction production) {
+        return productionSizes.getOrDefault(production, INFINITE);
+    }
+
+    private void computeFixpoint() {
+        boolean changed = true;
+
+        while(changed) {
+            changed = false;
+
+            for(IProduction production : productionsMap.values()) {
+                int size = compute(production);
+
+                if(size < get(production)) {
+                    productionSizes.put(production, size);
+                    changed = true;
+
+                    if(size < symbolSizes.getOrDefault(production.leftHand(), INFINITE)) {
+                        symbolSizes.put(production.leftHand(), size);
+                    }
+                }
+            }
+        }
+    }
+
+    private int compute(IProduction production) {
+        List<ISymbol> rhsSymbols = generator.cleanRhs(production.rightHand());
+
+        if(rhsSymbols.isEmpty() && !generator.getConstructor(production).isPresent()) {
+            return INFINITE;
+        }
+
+        long size = 1;
+
+        for(ISymbol rhsSymbol : rhsSymbols) {
+            size += get(rhsSymbol);
+
+            if(size >= INFINITE) {
+                return INFINITE;
+            }
+        }
+
+        return (int) size;
+    }
+}
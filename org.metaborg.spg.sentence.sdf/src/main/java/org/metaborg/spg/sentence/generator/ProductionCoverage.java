@@ -0,0 +1,64 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.metaborg.sdf2table.grammar.IProduction;
+import org.metaborg.spg.sentence.statistics.CoverageStatistics;
+
+/**
+ * Lock-free hit counters per context-free production, indexed by the production IDs of a {@link CompiledGrammar}.
+ *
+ * A hit is recorded for every subterm a production generates, including subterms of attempts that are abandoned
+ * later. Copies of a generator share their counters, so the counts cover all workers of a run. Under coverage-guided
+ * and adaptive selection the hits of a find are counted in index order by {@link SelectionFeedback}.
+ */
+public class ProductionCoverage {
+    private final CompiledGrammar compiledGrammar;
+    private final LongAdder[] hits;
+    private final boolean[] tracked;
+
+    public ProductionCoverage(CompiledGrammar compiledGrammar) {
+        this.compiledGrammar = compiledGrammar;
+        this.hits = new LongAdder[compiledGrammar.productionCount()];
+        this.tracked = new boolean[hits.length];
+
+        for(int p = 0; p < hits.length; p++) {
+            int lhs = compiledGrammar.symbolId(compiledGrammar.production(p).leftHand());
+
+            hits[p] = new LongAdder();
+            tracked[p] = compiledGrammar.kind(lhs) == CompiledGrammar.SORT
+                && compiledGrammar.productionMinimumSize(p) != MinimumSizeTable.INFINITE;
+        }
+    }
+
+    public void hit(int production) {
+        hits[production].increment();
+    }
+
+    public long getHits(int production) {
+        return hits[production].sum();
+    }
+
+    public CoverageStatistics statistics() {
+        List<IProduction> uncovered = new ArrayList<>();
+        int total = 0;
+        long sum = 0;
+
+        for(int p = 0; p < hits.length; p++) {
+            if(tracked[p]) {
+                long count = hits[p].sum();
+
+                if(count == 0) {
+                    uncovered.add(compiledGrammar.production(p));
+                }
+
+                total++;
+                sum += count;
+            }
+        }
+
+        return new CoverageStatistics(total, total - uncovered.size(), sum, uncovered);
+    }
+}
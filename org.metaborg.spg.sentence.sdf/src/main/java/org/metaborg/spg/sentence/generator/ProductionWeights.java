@@ -0,0 +1,97 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+/**
+ * Selection weights per production, learned from the outcome of testing the terms the productions occur in.
+ *
+ * Every production in an observed term gets a trial and the reward of the outcome. Its weight is one plus a gain times
+ * its mean reward, so productions that often end up in rewarded sentences are chosen more often, while unrewarded
+ * productions keep a base weight and are never starved. Injections have no constructor in the term and keep the base
+ * weight.
+ *
+ * A find stops at the first ambiguity, so within one find the weights are steered only by the smaller reward for
+ * sentences that parse slowly. The reward for an ambiguity steers later finds with the same generator. Terms are
+ * observed in index order by {@link SelectionFeedback}, for sequential, parallel and pipelined finds alike.
+ */
+public class ProductionWeights {
+    private static final double GAIN = 10;
+
+    private final Table<ISymbol, String, Integer> productionIds;
+    private final LongAdder[] trials;
+    private final DoubleAdder[] rewards;
+
+    public ProductionWeights(CompiledGrammar compiledGrammar) {
+        this.productionIds = HashBasedTable.create();
+        this.trials = new LongAdder[compiledGrammar.productionCount()];
+        this.rewards = new DoubleAdder[trials.length];
+
+        for(int p = 0; p < trials.length; p++) {
+            String constructor = compiledGrammar.constructor(p);
+
+            if(constructor != null) {
+                ISymbol lhs = compiledGrammar.production(p).leftHand();
+
+                productionIds.put(lhs, key(constructor, compiledGrammar.rhs(p).length), p);
+            }
+
+            trials[p] = new LongAdder();
+            rewards[p] = new DoubleAdder();
+        }
+    }
+
+    public double weight(int production) {
+        long count = trials[production].sum();
+
+        if(count == 0) {
+            return 1;
+        }
+
+        return 1 + GAIN * rewards[production].sum() / count;
+    }
+
+    public void observe(IStrategoTerm term, double reward) {
+        Deque<IStrategoTerm> pending = new ArrayDeque<>();
+        pending.push(term);
+
+        while(!pending.isEmpty()) {
+            IStrategoTerm current = pending.pop();
+            Integer production = productionId(current);
+
+            if(production != null) {
+                trials[production].increment();
+                rewards[production].add(reward);
+            }
+
+            for(IStrategoTerm subterm : current.getAllSubterms()) {
+                pending.push(subterm);
+            }
+        }
+    }
+
+    private Integer productionId(IStrategoTerm term) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+
+        if(attachment == null || !(term instanceof IStrategoAppl)) {
+            return null;
+        }
+
+        String constructor = ((IStrategoAppl) term).getConstructor().getName();
+
+        return productionIds.get(attachment.getSymbol(), key(constructor, term.getSubtermCount()));
+    }
+
+    private static String key(String constructor, int arity) {
+        return constructor + "/" + arity;
+    }
+}
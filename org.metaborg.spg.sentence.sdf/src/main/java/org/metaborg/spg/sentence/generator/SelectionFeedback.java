@@ -0,0 +1,185 @@
+package org.metaborg.spg.sentence.generator;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * Applies the production hits and the rewards of the terms of a find in index order, so that coverage-guided and
+ * adaptive selection do not depend on the number of workers or on thread timing.
+ *
+ * The indices of a find are split into batches. Every term of a batch is selected with the weights as they were after
+ * all terms of the earlier batches were applied, so the term with a given index is the same for a sequential, parallel
+ * or pipelined find. A worker that runs ahead to the next batch waits until every index of the current batch is done.
+ * Indices above the lowest ambiguous index are never needed, so their waits are abandoned once it is known.
+ */
+public class SelectionFeedback {
+    public static final int BATCH_SIZE = 64;
+
+    private final GeneratorConfig.Selection selection;
+    private final CompiledGrammar compiledGrammar;
+    private final ProductionCoverage coverage;
+    private final ProductionWeights weights;
+    private final Map<Long, int[]> hits;
+    private final Map<Long, Reward> rewards;
+    private final Set<Long> tested;
+    private long applied;
+    private long limit;
+    private boolean active;
+    private double[] snapshot;
+
+    public SelectionFeedback(GeneratorConfig.Selection selection, CompiledGrammar compiledGrammar,
+        ProductionCoverage coverage, ProductionWeights weights) {
+        this.selection = selection;
+        this.compiledGrammar = compiledGrammar;
+        this.coverage = coverage;
+        this.weights = weights;
+        this.hits = new HashMap<>();
+        this.rewards = new HashMap<>();
+        this.tested = new HashSet<>();
+        this.snapshot = snapshot();
+    }
+
+    // Starts a find at index 0; uniform selection learns nothing and never waits
+    public synchronized void begin() {
+        if(selection == GeneratorConfig.Selection.UNIFORM) {
+            return;
+        }
+
+        hits.clear();
+        rewards.clear();
+        tested.clear();
+        applied = 0;
+        limit = Long.MAX_VALUE;
+        active = true;
+    }
+
+    // Ends the find after the given number of indices; the indices above it are discarded whatever their state
+    public synchronized void end(long count) {
+        if(!active) {
+            return;
+        }
+
+        apply(count);
+
+        hits.clear();
+        rewards.clear();
+        tested.clear();
+        active = false;
+        snapshot = snapshot();
+
+        notifyAll();
+    }
+
+    // The indices above the given index will not be tested, so nobody needs to wait for them
+    public synchronized void stopAfter(long index) {
+        if(index < limit) {
+            limit = index;
+
+            notifyAll();
+        }
+    }
+
+    // Rewards the productions of the tested term with the given index; only has an effect on adaptive selection
+    public synchronized void rewarded(long index, IStrategoTerm term, double reward) {
+        if(active && selection == GeneratorConfig.Selection.ADAPTIVE) {
+            rewards.put(index, new Reward(term, reward));
+        }
+    }
+
+    // Marks the term with the given index as tested, or skipped; every index of a find must be marked exactly once
+    public synchronized void tested(long index) {
+        if(!active) {
+            return;
+        }
+
+        tested.add(index);
+
+        apply(Long.MAX_VALUE);
+    }
+
+    // The weights to select the term with the given index with, or null if the index is abandoned
+    synchronized double[] await(long index) {
+        long start = index - index % BATCH_SIZE;
+
+        while(active && applied < start) {
+            if(index > limit) {
+                return null;
+            }
+
+            try {
+                wait();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return null;
+            }
+        }
+
+        return snapshot;
+    }
+
+    // The weights to select with outside of an index, e.g. while shrinking
+    synchronized double[] current() {
+        return snapshot;
+    }
+
+    synchronized void generated(long index, int[] hits) {
+        if(active) {
+            this.hits.put(index, hits);
+        }
+    }
+
+    private void apply(long count) {
+        while(applied < count && tested.remove(applied)) {
+            int[] productions = hits.remove(applied);
+            Reward reward = rewards.remove(applied);
+
+            if(productions != null) {
+                for(int production : productions) {
+                    coverage.hit(production);
+                }
+            }
+
+            if(reward != null) {
+                weights.observe(reward.term, reward.reward);
+            }
+
+            applied++;
+
+            if(applied % BATCH_SIZE == 0) {
+                snapshot = snapshot();
+
+                notifyAll();
+            }
+        }
+    }
+
+    // Coverage selection weighs a production inversely to its hits plus one, preferring uncovered productions
+    private double[] snapshot() {
+        double[] snapshot = new double[compiledGrammar.productionCount()];
+
+        for(int p = 0; p < snapshot.length; p++) {
+            if(selection == GeneratorConfig.Selection.COVERAGE) {
+                snapshot[p] = 1.0 / (1 + coverage.getHits(p));
+            } else {
+                snapshot[p] = weights.weight(p);
+            }
+        }
+
+        return snapshot;
+    }
+
+    private static class Reward {
+        private final IStrategoTerm term;
+        private final double reward;
+
+        public Reward(IStrategoTerm term, double reward) {
+            this.term = term;
+            this.reward = reward;
+        }
+    }
+}
@@ -2,28 +2,34 @@ package org.metaborg.spg.sentence.guice;
 
 import com.google.inject.AbstractModule;
 import org.metaborg.spg.sentence.random.IRandom;
-import org.metaborg.spg.sentence.random.Random;
+import org.metaborg.spg.sentence.random.SplitRandom;
 import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
 import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.terms.TermFactory;
 
 public class SentenceModule extends AbstractModule {
-    private Random random;
+    private IRandom random;
+    private boolean hashConsing;
 
     public SentenceModule() {
-        this.random = new Random();
+        this.random = new SplitRandom();
     }
 
     public SentenceModule(long seed) {
-        this.random = new Random(seed);
+        this.random = new SplitRandom(seed);
+    }
+
+    public SentenceModule(long seed, boolean hashConsing) {
+        this.random = new SplitRandom(seed);
+        this.hashConsing = hashConsing;
     }
 
     @Override
     protected void configure() {
         ITermFactory termFactory = new TermFactory();
         ImploderOriginTermFactory imploderOriginTermFactory = new ImploderOriginTermFactory(termFactory);
-        GeneratorTermFactory generatorTermFactory = new GeneratorTermFactory(imploderOriginTermFactory);
+        GeneratorTermFactory generatorTermFactory = new GeneratorTermFactory(imploderOriginTermFactory, hashConsing);
 
         bind(ITermFactory.class).toInstance(generatorTermFactory);
         bind(GeneratorTermFactory.class).toInstance(generatorTermFactory);
@@ -31,6 +37,8 @@ public class SentenceModule extends AbstractModule {
         bindRandom();
     }
 
+    // The seeded root stream. Consumers never draw from it, but fork a named stream of their own, which depends on the
+    // seed and the name only, so the streams do not depend on the order in which Guice constructs the consumers.
     protected void bindRandom() {
         bind(IRandom.class).toInstance(random);
     }
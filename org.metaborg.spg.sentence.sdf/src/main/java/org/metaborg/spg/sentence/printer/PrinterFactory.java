@@ -13,6 +13,8 @@ import org.metaborg.spoofax.core.stratego.IStrategoCommon;
 import org.metaborg.spoofax.core.stratego.IStrategoRuntimeService;
 import org.strategoxt.HybridInterpreter;
 
+import java.util.function.Supplier;
+
 public class PrinterFactory {
     private final IContextService contextService;
     private final IStrategoRuntimeService runtimeService;
@@ -34,4 +36,37 @@ public class PrinterFactory {
 
         return new Printer(stratego, interpreter);
     }
+
+    public PrinterPool createPool(ILanguageImpl language, IProject project, int size) throws MetaborgException {
+        return createPool(language, project, null, size);
+    }
+
+    public PrinterPool createPool(ILanguageImpl language, IProject project, TemplatePrinter templatePrinter, int size) throws MetaborgException {
+        try {
+            return new PrinterPool(supplier(language, project), templatePrinter, size);
+        } catch (PrinterRuntimeException e) {
+            if (e.getCause() instanceof MetaborgException) {
+                throw (MetaborgException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    // All printers share one context; the runtime service hands out a fresh interpreter clone for every call
+    public Supplier<Printer> supplier(ILanguageImpl language, IProject project) {
+        FileObject languageLocation = Iterables.get(language.locations(), 0);
+        IContext context = contextService.getTemporary(languageLocation, project, language);
+        ILanguageComponent component = Iterables.get(language.components(), 0);
+
+        return () -> {
+            try {
+                HybridInterpreter interpreter = runtimeService.runtime(component, context, false);
+
+                return new Printer(stratego, interpreter);
+            } catch (MetaborgException e) {
+                throw new PrinterRuntimeException("Failed to create printer.", e);
+            }
+        };
+    }
 }
@@ -0,0 +1,153 @@
+package org.metaborg.spg.sentence.printer;
+
+import org.metaborg.spg.sentence.statistics.PrinterPoolStatistics;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A pool of printers, each with its own interpreter, that can be used to print from several threads at once.
+ *
+ * Every print borrows an idle printer and returns it afterwards. The pool only grows when asked to, so callers
+ * decide how many prints may run concurrently; a print blocks while all printers are lent out.
+ *
+ * If the pool has a template printer, terms are printed by it first and the Stratego printers are only used for terms
+ * it cannot print, such as terms that may need brackets. The first prints and then every hundredth print are checked
+ * against the Stratego printer, whose text is used for the checked print and whose disagreements are counted. The check
+ * only ignores the kind and amount of layout, not whether there is any, since that decides how the sentence is
+ * tokenised.
+ */
+public class PrinterPool {
+    private static final int LATENCY_SAMPLES = 8192;
+    private static final int VERIFY_WARMUP = 100;
+    private static final int VERIFY_INTERVAL = 100;
+
+    private final Supplier<Printer> printerSupplier;
+    private final TemplatePrinter templatePrinter;
+    private final BlockingQueue<Printer> idle;
+    private final LongAdder checkouts;
+    private final LongAdder waiting;
+    private final long[] latencies;
+    private final AtomicLong templatePrints;
+    private final LongAdder fallbacks;
+    private final LongAdder verifications;
+    private final LongAdder mismatches;
+    private int size;
+    private long prints;
+
+    public PrinterPool(Supplier<Printer> printerSupplier, int size) {
+        this(printerSupplier, null, size);
+    }
+
+    public PrinterPool(Supplier<Printer> printerSupplier, TemplatePrinter templatePrinter, int size) {
+        this.printerSupplier = printerSupplier;
+        this.templatePrinter = templatePrinter;
+        this.idle = new LinkedBlockingQueue<>();
+        this.checkouts = new LongAdder();
+        this.waiting = new LongAdder();
+        this.latencies = new long[LATENCY_SAMPLES];
+        this.templatePrints = new AtomicLong();
+        this.fallbacks = new LongAdder();
+        this.verifications = new LongAdder();
+        this.mismatches = new LongAdder();
+
+        ensureSize(size);
+    }
+
+    // Creates printers up front until the pool has at least the given size
+    public synchronized void ensureSize(int size) {
+        while (this.size < size) {
+            idle.add(printerSupplier.get());
+            this.size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public String print(IStrategoTerm term) {
+        long start = System.nanoTime();
+        String text = templatePrinter != null ? printTemplate(term) : printStratego(term);
+        record(System.nanoTime() - start);
+
+        return text;
+    }
+
+    private String printTemplate(IStrategoTerm term) {
+        Optional<String> textOpt = templatePrinter.print(term);
+
+        if (!textOpt.isPresent()) {
+            fallbacks.increment();
+
+            return printStratego(term);
+        }
+
+        long count = templatePrints.incrementAndGet();
+
+        if (count <= VERIFY_WARMUP || count % VERIFY_INTERVAL == 0) {
+            String expected = printStratego(term);
+            verifications.increment();
+
+            if (!normalizeLayout(expected).equals(normalizeLayout(textOpt.get()))) {
+                mismatches.increment();
+            }
+
+            return expected;
+        }
+
+        return textOpt.get();
+    }
+
+    private String printStratego(IStrategoTerm term) {
+        Printer printer = checkout();
+
+        try {
+            return printer.print(term);
+        } finally {
+            idle.add(printer);
+        }
+    }
+
+    private String normalizeLayout(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+
+    public PrinterPoolStatistics statistics() {
+        long[] samples;
+
+        synchronized (this) {
+            samples = new long[(int) Math.min(prints, LATENCY_SAMPLES)];
+            System.arraycopy(latencies, 0, samples, 0, samples.length);
+        }
+
+        return new PrinterPoolStatistics(size(), checkouts.sum(), waiting.sum(), samples, templatePrints.get(),
+                fallbacks.sum(), verifications.sum(), mismatches.sum());
+    }
+
+    private Printer checkout() {
+        long start = System.nanoTime();
+
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new PrinterRuntimeException("Interrupted while waiting for a printer.", e);
+        } finally {
+            checkouts.increment();
+            waiting.add(System.nanoTime() - start);
+        }
+    }
+
+    // Keeps the most recent latencies in a ring buffer
+    private synchronized void record(long latency) {
+        latencies[(int) (prints % LATENCY_SAMPLES)] = latency;
+        prints++;
+    }
+}
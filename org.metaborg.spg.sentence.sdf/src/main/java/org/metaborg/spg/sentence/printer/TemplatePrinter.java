@@ -0,0 +1,277 @@
+package org.metaborg.spg.sentence.printer;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.SetMultimap;
+import org.metaborg.sdf2table.grammar.ContextFreeSymbol;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.OptionalSymbol;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.metaborg.spg.sentence.sdf3.Grammar;
+import org.metaborg.spg.sentence.sdf3.Priority;
+import org.metaborg.spg.sentence.sdf3.Production;
+import org.metaborg.spg.sentence.sdf3.symbol.*;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoList;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+/**
+ * Prints terms by writing out the SDF3 templates of their constructors directly, without going through Stratego.
+ *
+ * Literal text and layout come from the template. Like the SDF3 pretty-printer, a list that is alone on its template
+ * line is printed one element per line at the indentation of that line, and other lists on a single line; separated
+ * lists put their separator before the line break or space. The printer does not parenthesize, so it gives up (returns
+ * empty) on a term with a subterm that may need brackets: a subterm of a sort with a bracket production, or a subterm
+ * whose production has a lower priority than the production of its parent, directly or transitively. Callers print
+ * such terms with the Stratego printer and are expected to check the output of this printer against it.
+ */
+public class TemplatePrinter {
+    private final ListMultimap<String, Production> productions;
+    private final Set<String> bracketSorts;
+    private final SetMultimap<String, String> lowerPriorities;
+
+    public TemplatePrinter(Grammar grammar) {
+        this.productions = ArrayListMultimap.create();
+        this.bracketSorts = new HashSet<>();
+
+        SetMultimap<String, String> priorities = HashMultimap.create();
+
+        for (Production production : grammar.getProductions()) {
+            if (production.isBracket()) {
+                bracketSorts.add(production.getLhs().getName());
+            } else if (production.isNotReject() && production.getConstructor().isPresent()) {
+                productions.put(key(production.getConstructor().get(), size(production.getRhs())), production);
+            }
+
+            if (production.isAssoc() && production.getReference().isPresent()) {
+                priorities.put(production.getReference().get(), production.getReference().get());
+            }
+        }
+
+        for (Priority priority : grammar.getPriorities()) {
+            priorities.put(priority.getHigher(), priority.getLower());
+        }
+
+        this.lowerPriorities = closure(priorities);
+    }
+
+    public Optional<String> print(IStrategoTerm term) {
+        StringBuilder builder = new StringBuilder();
+
+        try {
+            printTerm(term, null, builder);
+        } catch (UnprintableException e) {
+            return empty();
+        }
+
+        return of(builder.toString());
+    }
+
+    private void printTerm(IStrategoTerm term, Production context, StringBuilder builder) {
+        if (term instanceof IStrategoString) {
+            builder.append(((IStrategoString) term).stringValue());
+        } else if (term instanceof IStrategoAppl) {
+            printAppl((IStrategoAppl) term, context, builder);
+        } else {
+            throw new UnprintableException();
+        }
+    }
+
+    private void printAppl(IStrategoAppl appl, Production context, StringBuilder builder) {
+        Production production = getProduction(appl);
+
+        if (context != null && mayNeedBrackets(production, context)) {
+            throw new UnprintableException();
+        }
+
+        boolean template = production.isTemplate();
+        int child = 0;
+
+        // The indentation of the current template line as long as it only contains layout, null after anything else
+        String indentation = "";
+
+        for (Symbol symbol : production.getTemplate()) {
+            if (!template && builder.length() > 0) {
+                builder.append(' ');
+            }
+
+            if (symbol instanceof Literal) {
+                builder.append(((Literal) symbol).getText());
+                indentation = null;
+            } else if (symbol instanceof Layout) {
+                String text = ((Layout) symbol).getText();
+                builder.append(text);
+
+                if (text.indexOf('\n') != -1) {
+                    indentation = text.substring(text.lastIndexOf('\n') + 1);
+                } else if (indentation != null) {
+                    indentation += text;
+                }
+            } else {
+                String layout = template && indentation != null ? "\n" + indentation : " ";
+
+                printSymbol(symbol, appl.getSubterm(child++), production, layout, builder);
+                indentation = null;
+            }
+        }
+    }
+
+    private void printSymbol(Symbol symbol, IStrategoTerm term, Production context, String layout, StringBuilder builder) {
+        if (symbol instanceof Iter) {
+            printList(term, context, layout, builder);
+        } else if (symbol instanceof IterStar) {
+            printList(term, context, layout, builder);
+        } else if (symbol instanceof IterSep) {
+            printList(term, context, separator(((IterSep) symbol).getSeparator()) + layout, builder);
+        } else if (symbol instanceof IterStarSep) {
+            printList(term, context, separator(((IterStarSep) symbol).getSeparator()) + layout, builder);
+        } else if (symbol instanceof Opt) {
+            if (!isOptional(term)) {
+                throw new UnprintableException();
+            }
+
+            if (term.getSubtermCount() == 1) {
+                printSymbol(((Opt) symbol).getSymbol(), term.getSubterm(0), context, layout, builder);
+            }
+        } else {
+            printTerm(term, context, builder);
+        }
+    }
+
+    private void printList(IStrategoTerm term, Production context, String separator, StringBuilder builder) {
+        if (!(term instanceof IStrategoList)) {
+            throw new UnprintableException();
+        }
+
+        IStrategoTerm[] elements = term.getAllSubterms();
+
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+
+            printTerm(elements[i], context, builder);
+        }
+    }
+
+    private boolean mayNeedBrackets(Production production, Production context) {
+        if (bracketSorts.contains(production.getLhs().getName())) {
+            return true;
+        }
+
+        Optional<String> reference = production.getReference();
+        Optional<String> contextReference = context.getReference();
+
+        return reference.isPresent() && contextReference.isPresent()
+                && lowerPriorities.containsEntry(contextReference.get(), reference.get());
+    }
+
+    private Production getProduction(IStrategoAppl appl) {
+        String constructor = appl.getConstructor().getName();
+        List<Production> candidates = productions.get(key(constructor, appl.getSubtermCount()));
+
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        Optional<String> sortOpt = getSort(appl);
+
+        if (sortOpt.isPresent()) {
+            for (Production production : candidates) {
+                if (production.getLhs().getName().equals(sortOpt.get())) {
+                    return production;
+                }
+            }
+        }
+
+        throw new UnprintableException();
+    }
+
+    private Optional<String> getSort(IStrategoTerm term) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+
+        if (attachment != null && attachment.getSymbol() instanceof ContextFreeSymbol) {
+            ISymbol symbol = ((ContextFreeSymbol) attachment.getSymbol()).getSymbol();
+
+            return of(symbol.name());
+        }
+
+        return empty();
+    }
+
+    private boolean isOptional(IStrategoTerm term) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+
+        if (attachment != null) {
+            return attachment.getSymbol() instanceof OptionalSymbol;
+        }
+
+        if (term instanceof IStrategoAppl) {
+            String name = ((IStrategoAppl) term).getConstructor().getName();
+
+            return "Some".equals(name) && term.getSubtermCount() == 1 || "None".equals(name) && term.getSubtermCount() == 0;
+        }
+
+        return false;
+    }
+
+    private String separator(Symbol separator) {
+        if (separator instanceof Literal) {
+            return ((Literal) separator).getText();
+        }
+
+        throw new UnprintableException();
+    }
+
+    private static SetMultimap<String, String> closure(SetMultimap<String, String> priorities) {
+        SetMultimap<String, String> closure = HashMultimap.create();
+
+        for (String higher : priorities.keySet()) {
+            Deque<String> pending = new ArrayDeque<>(priorities.get(higher));
+
+            while (!pending.isEmpty()) {
+                String lower = pending.pop();
+
+                if (closure.put(higher, lower)) {
+                    pending.addAll(priorities.get(lower));
+                }
+            }
+        }
+
+        return closure;
+    }
+
+    private String key(String constructor, int arity) {
+        return constructor + "/" + arity;
+    }
+
+    private int size(Iterable<Symbol> symbols) {
+        int size = 0;
+
+        for (Symbol symbol : symbols) {
+            if (!(symbol instanceof Literal) && !(symbol instanceof Layout)) {
+                size++;
+            }
+        }
+
+        return size;
+    }
+
+    private static class UnprintableException extends RuntimeException {
+        public UnprintableException() {
+            super(null, null, false, false);
+        }
+    }
+}
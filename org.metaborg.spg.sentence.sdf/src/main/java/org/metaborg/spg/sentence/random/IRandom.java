@@ -1,13 +1,36 @@
 package org.metaborg.spg.sentence.random;
 
+import org.metaborg.spg.sentence.shared.generator.RandomSource;
+
 import java.util.List;
 
-public interface IRandom {
+public interface IRandom extends RandomSource {
     <T> T fromList(List<T> list);
 
-    int fromRange(int bound);
-
     boolean flip();
 
+    // Returns a shuffled copy; the given list is left untouched
     <T> List<T> shuffle(List<T> list);
+
+    // A new, independent stream; advances this stream
+    IRandom split();
+
+    // The stream for the given index, determined by the seed of this stream and the index only
+    IRandom fork(long index);
+
+    // The stream with the given name, e.g. of one consumer, determined by the seed of this stream and the name only
+    default IRandom fork(String name) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+        }
+
+        return fork(hash);
+    }
+
+    long getSeed();
+
+    // A new stream of the same kind with the given seed, e.g. one reported by getSeed
+    IRandom withSeed(long seed);
 }
@@ -1,17 +1,20 @@
 package org.metaborg.spg.sentence.random;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 public class Random implements IRandom {
+    private final long seed;
     private final java.util.Random random;
 
     public Random() {
-        random = new java.util.Random();
+        this(new java.util.Random().nextLong());
     }
 
     public Random(long seed) {
-        random = new java.util.Random(seed);
+        this.seed = seed;
+        this.random = new java.util.Random(seed);
     }
 
     @Override
@@ -24,6 +27,11 @@ public class Random implements IRandom {
         return random.nextInt(bound);
     }
 
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
     @Override
     public boolean flip() {
         return random.nextInt(2) == 0;
@@ -31,8 +39,29 @@ public class Random implements IRandom {
 
     @Override
     public <T> List<T> shuffle(List<T> list) {
-        Collections.shuffle(list, random);
+        List<T> copy = new ArrayList<>(list);
+        Collections.shuffle(copy, random);
+
+        return copy;
+    }
+
+    @Override
+    public IRandom split() {
+        return new Random(random.nextLong());
+    }
 
-        return list;
+    @Override
+    public IRandom fork(long index) {
+        return new Random(SplitRandom.mix(seed, index));
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public IRandom withSeed(long seed) {
+        return new Random(seed);
     }
 }
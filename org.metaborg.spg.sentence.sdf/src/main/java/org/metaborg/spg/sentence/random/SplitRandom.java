@@ -0,0 +1,86 @@
+package org.metaborg.spg.sentence.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A random stream based on {@link SplittableRandom}. It does not synchronise, so every thread should work on its own
+ * stream obtained through {@link #split()}, {@link #fork(long)} or {@link #fork(String)}; all are deterministic given
+ * the seed.
+ */
+public class SplitRandom implements IRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    public SplitRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public SplitRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public <T> T fromList(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    @Override
+    public int fromRange(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public boolean flip() {
+        return random.nextBoolean();
+    }
+
+    @Override
+    public <T> List<T> shuffle(List<T> list) {
+        List<T> copy = new ArrayList<>(list);
+
+        for (int i = copy.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T element = copy.get(i);
+
+            copy.set(i, copy.get(j));
+            copy.set(j, element);
+        }
+
+        return copy;
+    }
+
+    @Override
+    public IRandom split() {
+        return new SplitRandom(random.nextLong());
+    }
+
+    @Override
+    public IRandom fork(long index) {
+        return new SplitRandom(mix(seed, index));
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public IRandom withSeed(long seed) {
+        return new SplitRandom(seed);
+    }
+
+    // A well-mixed seed for the given index, the output of a SplittableRandom seeded with the seed at that position
+    static long mix(long seed, long index) {
+        return new SplittableRandom(seed + index * GOLDEN_GAMMA).nextLong();
+    }
+}
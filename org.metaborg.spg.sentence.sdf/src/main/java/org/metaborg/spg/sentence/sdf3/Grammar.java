@@ -20,4 +20,10 @@ public class Grammar {
                 .from(modules)
                 .transformAndConcat(Module::getProductions);
     }
+
+    public Iterable<Priority> getPriorities() {
+        return FluentIterable
+                .from(modules)
+                .transformAndConcat(Module::getPriorities);
+    }
 }
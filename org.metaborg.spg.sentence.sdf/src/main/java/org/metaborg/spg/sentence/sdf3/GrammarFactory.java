@@ -8,6 +8,7 @@ import org.metaborg.core.language.ILanguageImpl;
 import org.metaborg.core.project.IProject;
 import org.metaborg.core.source.ISourceTextService;
 import org.metaborg.core.syntax.ParseException;
+import org.metaborg.spg.sentence.sdf3.attribute.Assoc;
 import org.metaborg.spg.sentence.sdf3.attribute.Attribute;
 import org.metaborg.spg.sentence.sdf3.attribute.Bracket;
 import org.metaborg.spg.sentence.sdf3.attribute.Reject;
@@ -25,8 +26,10 @@ import org.spoofax.interpreter.terms.IStrategoString;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import static org.metaborg.spg.sentence.shared.utils.FunctionalUtils.uncheck2;
@@ -123,9 +126,81 @@ public class GrammarFactory {
             return Collections.singleton(new ContextFreeSection(productions));
         }
 
+        if ("ContextFreePriorities".equals(appl.getConstructor().getName())) {
+            Iterable<Priority> priorities = readPriorities(appl.getSubterm(0));
+
+            return Collections.singleton(new PrioritiesSection(priorities));
+        }
+
         return Collections.emptySet();
     }
 
+    // A chain gives each group priority over the next one and associativity gives productions priority over each other
+    // in both directions. Only productions referenced by constructor are read.
+    private Iterable<Priority> readPriorities(IStrategoTerm term) {
+        List<Priority> priorities = new ArrayList<>();
+
+        for (IStrategoTerm priority : term.getAllSubterms()) {
+            IStrategoAppl appl = (IStrategoAppl) priority;
+
+            switch (appl.getConstructor().getName()) {
+                case "Chain":
+                    readChain(appl.getSubterm(0), priorities);
+                    break;
+                case "Assoc":
+                    List<String> left = readReferences(appl.getSubterm(0));
+                    List<String> right = readReferences(appl.getSubterm(2));
+
+                    addPriorities(left, right, priorities);
+                    addPriorities(right, left, priorities);
+                    break;
+            }
+        }
+
+        return priorities;
+    }
+
+    private void readChain(IStrategoTerm term, List<Priority> priorities) {
+        IStrategoTerm[] groups = term.getAllSubterms();
+
+        for (int i = 0; i < groups.length; i++) {
+            List<String> group = readReferences(groups[i]);
+
+            if (((IStrategoAppl) groups[i]).getConstructor().getName().startsWith("Assoc")) {
+                addPriorities(group, group, priorities);
+            }
+
+            if (i + 1 < groups.length) {
+                addPriorities(group, readReferences(groups[i + 1]), priorities);
+            }
+        }
+    }
+
+    private void addPriorities(List<String> higher, List<String> lower, List<Priority> priorities) {
+        for (String higherReference : higher) {
+            for (String lowerReference : lower) {
+                priorities.add(new Priority(higherReference, lowerReference));
+            }
+        }
+    }
+
+    private List<String> readReferences(IStrategoTerm term) {
+        List<String> references = new ArrayList<>();
+
+        if (term instanceof IStrategoAppl && "SortCons".equals(((IStrategoAppl) term).getConstructor().getName())) {
+            String sort = readString(term.getSubterm(0).getSubterm(0));
+            String constructor = readConstructor(term.getSubterm(1));
+
+            references.add(sort + "." + constructor);
+        } else {
+            for (IStrategoTerm subterm : term.getAllSubterms()) {
+                references.addAll(readReferences(subterm));
+            }
+        }
+
+        return references;
+    }
+
     private Iterable<Production> readProductions(IStrategoTerm term) {
         Iterable<IStrategoTerm> productions = Arrays.asList(term.getAllSubterms());
 
@@ -172,8 +247,9 @@ public class GrammarFactory {
         Nonterminal lhs = readNonterminal(appl.getSubterm(0));
         Iterable<Symbol> rhs = readTemplate(appl.getSubterm(1));
         Iterable<Attribute> attributes = readAttributes(appl.getSubterm(2));
+        Iterable<Symbol> template = readTemplateText(appl.getSubterm(1));
 
-        return new Production(lhs, rhs, attributes);
+        return new Production(lhs, rhs, attributes, null, template);
     }
 
     private Production readTemplateProductionWithCons(IStrategoAppl appl) {
@@ -181,8 +257,9 @@ public class GrammarFactory {
         String constructor = readConstructor(appl.getSubterm(0).getSubterm(1));
         Iterable<Symbol> rhs = readTemplate(appl.getSubterm(1));
         Iterable<Attribute> attributes = readAttributes(appl.getSubterm(2));
+        Iterable<Symbol> template = readTemplateText(appl.getSubterm(1));
 
-        return new Production(lhs, rhs, attributes, constructor);
+        return new Production(lhs, rhs, attributes, constructor, template);
     }
 
     private Nonterminal readNonterminal(IStrategoTerm term) {
@@ -233,6 +310,40 @@ public class GrammarFactory {
         return Collections.emptySet();
     }
 
+    private Iterable<Symbol> readTemplateText(IStrategoTerm term) {
+        List<Symbol> symbols = new ArrayList<>();
+        IStrategoTerm[] lines = term.getSubterm(0).getAllSubterms();
+
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                symbols.add(new Layout("\n"));
+            }
+
+            for (IStrategoTerm part : lines[i].getSubterm(0).getAllSubterms()) {
+                symbols.add(readTemplateTextPart(part));
+            }
+        }
+
+        return symbols;
+    }
+
+    private Symbol readTemplateTextPart(IStrategoTerm term) {
+        IStrategoAppl appl = (IStrategoAppl) term;
+
+        switch (appl.getConstructor().getName()) {
+            case "Angled":
+            case "Squared":
+                return readPlaceholder(appl.getSubterm(0));
+            case "Layout":
+                return new Layout(((IStrategoString) appl.getSubterm(0)).stringValue());
+            case "String":
+            case "Escape":
+                return new Literal(readString(appl.getSubterm(0)));
+        }
+
+        return new Layout();
+    }
+
     private Symbol readPlaceholder(IStrategoTerm term) {
         return readSymbol(term.getSubterm(0));
     }
@@ -307,6 +418,8 @@ public class GrammarFactory {
                 return Collections.singleton(new Bracket());
             case "Reject":
                 return Collections.singleton(new Reject());
+            case "Assoc":
+                return Collections.singleton(new Assoc());
         }
 
         return Collections.emptySet();
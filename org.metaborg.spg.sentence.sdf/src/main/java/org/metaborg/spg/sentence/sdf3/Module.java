@@ -30,4 +30,10 @@ public class Module {
                 .from(sections)
                 .transformAndConcat(Section::getProductions);
     }
+
+    public Iterable<Priority> getPriorities() {
+        return FluentIterable
+                .from(sections)
+                .transformAndConcat(Section::getPriorities);
+    }
 }
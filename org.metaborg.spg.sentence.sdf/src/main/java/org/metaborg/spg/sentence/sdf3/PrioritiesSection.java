@@ -0,0 +1,21 @@
+package org.metaborg.spg.sentence.sdf3;
+
+import java.util.Collections;
+
+public class PrioritiesSection extends Section {
+    private final Iterable<Priority> priorities;
+
+    public PrioritiesSection(Iterable<Priority> priorities) {
+        this.priorities = priorities;
+    }
+
+    @Override
+    public Iterable<Production> getProductions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Iterable<Priority> getPriorities() {
+        return priorities;
+    }
+}
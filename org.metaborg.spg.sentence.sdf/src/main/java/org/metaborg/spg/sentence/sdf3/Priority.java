@@ -0,0 +1,28 @@
+package org.metaborg.spg.sentence.sdf3;
+
+/**
+ * A priority between two productions, referenced as Sort.Constructor. A production that is associative with another
+ * one gets a priority over it in both directions.
+ */
+public class Priority {
+    private final String higher;
+    private final String lower;
+
+    public Priority(String higher, String lower) {
+        this.higher = higher;
+        this.lower = lower;
+    }
+
+    public String getHigher() {
+        return higher;
+    }
+
+    public String getLower() {
+        return lower;
+    }
+
+    @Override
+    public String toString() {
+        return higher + " > " + lower;
+    }
+}
@@ -1,6 +1,7 @@
 package org.metaborg.spg.sentence.sdf3;
 
 import com.google.common.base.Joiner;
+import org.metaborg.spg.sentence.sdf3.attribute.Assoc;
 import org.metaborg.spg.sentence.sdf3.attribute.Attribute;
 import org.metaborg.spg.sentence.sdf3.attribute.Bracket;
 import org.metaborg.spg.sentence.sdf3.attribute.Reject;
@@ -19,16 +20,28 @@ public class Production {
     private final Iterable<Symbol> rhs;
     private final Iterable<Attribute> attributes;
     private final String constructor;
+    private final Iterable<Symbol> template;
+    private final boolean isTemplate;
 
     public Production(Nonterminal lhs, Iterable<Symbol> rhs, Iterable<Attribute> attributes) {
         this(lhs, rhs, attributes, null);
     }
 
     public Production(Nonterminal lhs, Iterable<Symbol> rhs, Iterable<Attribute> attributes, String constructor) {
+        this(lhs, rhs, attributes, constructor, rhs, false);
+    }
+
+    public Production(Nonterminal lhs, Iterable<Symbol> rhs, Iterable<Attribute> attributes, String constructor, Iterable<Symbol> template) {
+        this(lhs, rhs, attributes, constructor, template, true);
+    }
+
+    private Production(Nonterminal lhs, Iterable<Symbol> rhs, Iterable<Attribute> attributes, String constructor, Iterable<Symbol> template, boolean isTemplate) {
         this.lhs = lhs;
         this.rhs = rhs;
         this.attributes = attributes;
         this.constructor = constructor;
+        this.template = template;
+        this.isTemplate = isTemplate;
     }
 
     public Nonterminal getLhs() {
@@ -39,6 +52,14 @@ public class Production {
         return rhs;
     }
 
+    public Iterable<Symbol> getTemplate() {
+        return template;
+    }
+
+    public boolean isTemplate() {
+        return isTemplate;
+    }
+
     public boolean isReject() {
         return hasAttribute(Reject.class);
     }
@@ -59,6 +80,15 @@ public class Production {
         return ofNullable(constructor);
     }
 
+    // The reference to the production in a priority, if it has a constructor
+    public Optional<String> getReference() {
+        return getConstructor().map(constructor -> lhs.getName() + "." + constructor);
+    }
+
+    public boolean isAssoc() {
+        return hasAttribute(Assoc.class);
+    }
+
     private boolean hasAttribute(Class<?> clazz) {
         Optional<Attribute> attributeOptional = getAttribute(clazz::isInstance);
 
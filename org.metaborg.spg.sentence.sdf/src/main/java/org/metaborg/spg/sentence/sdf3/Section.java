@@ -1,5 +1,11 @@
 package org.metaborg.spg.sentence.sdf3;
 
+import java.util.Collections;
+
 public abstract class Section {
     public abstract Iterable<Production> getProductions();
+
+    public Iterable<Priority> getPriorities() {
+        return Collections.emptySet();
+    }
 }
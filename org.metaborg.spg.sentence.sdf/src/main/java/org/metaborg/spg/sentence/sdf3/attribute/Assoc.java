@@ -0,0 +1,4 @@
+package org.metaborg.spg.sentence.sdf3.attribute;
+
+public class Assoc extends Attribute {
+}
@@ -13,6 +13,10 @@ public class IterSep extends Symbol {
         return symbol;
     }
 
+    public Symbol getSeparator() {
+        return separator;
+    }
+
     @Override
     public String toString() {
         return "{" + symbol + " " + separator + "}+";
@@ -1,4 +1,22 @@
 package org.metaborg.spg.sentence.sdf3.symbol;
 
 public class Layout extends Symbol {
+    private final String text;
+
+    public Layout() {
+        this(" ");
+    }
+
+    public Layout(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return "LAYOUT";
+    }
 }
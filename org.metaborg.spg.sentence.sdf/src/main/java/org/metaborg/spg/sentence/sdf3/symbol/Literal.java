@@ -7,6 +7,10 @@ public class Literal extends Symbol {
         this.text = text;
     }
 
+    public String getText() {
+        return text;
+    }
+
     @Override
     public String toString() {
         return "\"" + text + "\"";
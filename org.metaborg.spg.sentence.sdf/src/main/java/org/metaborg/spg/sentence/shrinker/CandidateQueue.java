@@ -0,0 +1,149 @@
+package org.metaborg.spg.sentence.shrinker;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * Shrink candidates of one term, ordered by the number of nodes they remove, largest reduction first. Candidates with
+ * the same reduction keep the order of the nodes they belong to, and within a node the order in which they were added.
+ *
+ * The queue is seeded with one entry per node, ranked by the largest reduction any candidate of the node can have. The
+ * candidates of a node are only added once its entry reaches the top, so nodes whose candidates are never needed are
+ * never expanded. Since no candidate of a node is ranked before its entry, the order is the same as if all candidates
+ * were added up front.
+ *
+ * A candidate is built when it is taken from the queue. If its reduction is only known after building it (e.g. it
+ * contains a generated term), it is added with an upper bound; once built it is put back with its actual reduction if
+ * that is smaller than the reduction of the next candidate.
+ *
+ * Candidates whose edit was rejected before are not added.
+ */
+class CandidateQueue implements Iterator<ShrinkCandidate> {
+    private final int termSize;
+    private final LongPredicate rejected;
+    private final PriorityQueue<Candidate> queue;
+    private int nodes;
+    private int node;
+    private int order;
+    private ShrinkCandidate next;
+
+    public CandidateQueue(IStrategoTerm term, LongPredicate rejected) {
+        this.termSize = GeneratorAttachment.getSize(term);
+        this.rejected = rejected;
+        this.queue = new PriorityQueue<>();
+    }
+
+    // Adds a node whose candidates remove at most the given number of nodes; the expansion adds its candidates
+    public void addNode(int maximumReduction, Runnable expansion) {
+        queue.add(new Candidate(maximumReduction, nodes++, -1, 0, null, false, expansion));
+    }
+
+    public void add(int reduction, long edit, Supplier<IStrategoTerm> candidate) {
+        if (!rejected.test(edit)) {
+            queue.add(new Candidate(reduction, node, order++, edit, () -> Optional.of(candidate.get()), false, null));
+        }
+    }
+
+    public void addEstimate(int maximumReduction, Supplier<Optional<IStrategoTerm>> candidate) {
+        queue.add(new Candidate(maximumReduction, node, order++, 0, candidate, true, null));
+    }
+
+    public Stream<ShrinkCandidate> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+
+            if (candidate.expansion != null) {
+                node = candidate.node;
+                order = 0;
+                candidate.expansion.run();
+
+                continue;
+            }
+
+            Optional<IStrategoTerm> termOpt = candidate.term.get();
+
+            if (!termOpt.isPresent()) {
+                continue;
+            }
+
+            IStrategoTerm term = termOpt.get();
+
+            if (candidate.estimated) {
+                int reduction = termSize - GeneratorAttachment.getSize(term);
+
+                if (!queue.isEmpty() && reduction < queue.peek().reduction) {
+                    queue.add(new Candidate(reduction, candidate.node, candidate.order, candidate.edit, () -> termOpt, false,
+                            null));
+
+                    continue;
+                }
+            }
+
+            next = new ShrinkCandidate(term, candidate.edit);
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public ShrinkCandidate next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        ShrinkCandidate candidate = next;
+        next = null;
+
+        return candidate;
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        private final int reduction;
+        private final int node;
+        private final int order;
+        private final long edit;
+        private final Supplier<Optional<IStrategoTerm>> term;
+        private final boolean estimated;
+        private final Runnable expansion;
+
+        public Candidate(int reduction, int node, int order, long edit, Supplier<Optional<IStrategoTerm>> term,
+                boolean estimated, Runnable expansion) {
+            this.reduction = reduction;
+            this.node = node;
+            this.order = order;
+            this.edit = edit;
+            this.term = term;
+            this.estimated = estimated;
+            this.expansion = expansion;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (reduction != other.reduction) {
+                return Integer.compare(other.reduction, reduction);
+            }
+
+            if (node != other.node) {
+                return Integer.compare(node, other.node);
+            }
+
+            return Integer.compare(order, other.order);
+        }
+    }
+}
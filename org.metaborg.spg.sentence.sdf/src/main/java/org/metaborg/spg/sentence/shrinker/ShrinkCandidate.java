@@ -0,0 +1,25 @@
+package org.metaborg.spg.sentence.shrinker;
+
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * A shrunk term with a fingerprint of the edit that produced it: the kind of edit, the node it was applied to and its
+ * arguments. The edit is 0 if it cannot be told apart from other edits, e.g. the replacement by a generated term.
+ */
+public class ShrinkCandidate {
+    private final IStrategoTerm term;
+    private final long edit;
+
+    public ShrinkCandidate(IStrategoTerm term, long edit) {
+        this.term = term;
+        this.edit = edit;
+    }
+
+    public IStrategoTerm getTerm() {
+        return term;
+    }
+
+    public long getEdit() {
+        return edit;
+    }
+}
@@ -1,17 +1,11 @@
 package org.metaborg.spg.sentence.shrinker;
 
-import static java.util.stream.Stream.concat;
-import static java.util.stream.Stream.empty;
-import static java.util.stream.Stream.of;
-import static org.metaborg.spg.sentence.shared.stream.FlatMappingSpliterator.flatMap;
-import static org.metaborg.spg.sentence.shared.utils.StreamUtils.cons;
-import static org.metaborg.spg.sentence.shared.utils.StreamUtils.o2s;
-import static org.metaborg.spg.sentence.shared.utils.StreamUtils.zipWith;
-
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -24,121 +18,173 @@ import org.metaborg.sdf2table.grammar.IterSymbol;
 import org.metaborg.sdf2table.grammar.LexicalSymbol;
 import org.metaborg.sdf2table.grammar.OptionalSymbol;
 import org.metaborg.spg.sentence.generator.Generator;
-import org.metaborg.spg.sentence.generator.GeneratorAttachment;
 import org.metaborg.spg.sentence.random.IRandom;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spg.sentence.signature.Signature;
 import org.metaborg.spg.sentence.signature.Sort;
+import org.metaborg.spg.sentence.terms.CompactTerm;
 import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spoofax.interpreter.terms.IStrategoAppl;
 import org.spoofax.interpreter.terms.IStrategoList;
-import org.spoofax.interpreter.terms.IStrategoString;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+/**
+ * Shrinks a term by replacing one of its subterms.
+ *
+ * The term is indexed as a {@link CompactTerm} once per step, which gives the position, size and symbol of every
+ * subterm. A candidate copies only the path from the root to the replaced subterm and shares all other subterms.
+ * Candidates are scheduled in a {@link CandidateQueue} by the number of nodes they remove; the candidates of a node are
+ * only built once the node can hold the largest remaining reduction.
+ */
 public class Shrinker {
     private static final Logger logger = LoggerFactory.getLogger(Shrinker.class);
+    private static final long REMOVE = 1;
+    private static final long RECURSE = 2;
 
     private final IRandom random;
     private final GeneratorTermFactory termFactory;
     private final Generator generator;
     private final Signature signature;
+    private final ListReduction listReduction;
+    private final Map<ISymbol, Sort> sorts;
 
     public Shrinker(IRandom random, GeneratorTermFactory termFactory, Generator generator, Signature signature) {
+        this(random, termFactory, generator, signature, ListReduction.SINGLE);
+    }
+
+    public Shrinker(IRandom random, GeneratorTermFactory termFactory, Generator generator, Signature signature,
+            ListReduction listReduction) {
         this.random = random;
         this.termFactory = termFactory;
         this.generator = generator;
         this.signature = signature;
+        this.listReduction = listReduction;
+        this.sorts = new ConcurrentHashMap<>();
     }
 
     public Stream<IStrategoTerm> shrink(IStrategoTerm term) {
-        List<IStrategoTerm> subTerms = subTerms(term).collect(Collectors.toList());
-
-        return random.shuffle(subTerms).stream().flatMap(subTerm ->
-                shrink(term, subTerm)
-        );
+        return shrink(term, edit -> false).map(ShrinkCandidate::getTerm);
     }
 
-    private Stream<IStrategoTerm> shrink(IStrategoTerm haystack, IStrategoTerm needle) {
-        logger.trace("Shrink term: " + needle);
+    // Candidates are tried largest reduction first, candidates with the same reduction in random order. Candidates of
+    // which the edit is rejected are left out. No candidate of a node removes more than the node's size minus one.
+    public Stream<ShrinkCandidate> shrink(IStrategoTerm term, LongPredicate rejected) {
+        CompactTerm index = CompactTerm.of(term);
+        List<Integer> nodes = IntStream.range(0, index.length()).boxed().collect(Collectors.toList());
+        CandidateQueue candidates = new CandidateQueue(term, rejected);
 
-        if (needle instanceof IStrategoList) {
-            return shrinkList(haystack, (IStrategoList) needle);
-        } else if (needle instanceof IStrategoAppl) {
-            return concat(shrinkGenerate(haystack, needle), shrinkRecursive(haystack, (IStrategoAppl) needle));
-        } else {
-            return shrinkGenerate(haystack, needle);
+        for (int node : random.shuffle(nodes)) {
+            candidates.addNode(index.size(node) - 1, () -> shrink(term, index, node, candidates));
         }
+
+        return candidates.stream();
     }
 
-    private Stream<IStrategoTerm> shrinkGenerate(IStrategoTerm haystack, IStrategoTerm needle) {
-        logger.trace("Shrink generate: " + needle);
+    private void shrink(IStrategoTerm term, CompactTerm index, int node, CandidateQueue candidates) {
+        logger.trace("Shrink node " + node + " of size " + index.size(node));
+
+        switch (index.kind(node)) {
+            case CompactTerm.LIST:
+                shrinkList(term, index, node, candidates);
+                break;
+            case CompactTerm.APPL:
+                shrinkGenerate(term, index, node, candidates);
+                shrinkRecursive(term, index, node, candidates);
+                break;
+            default:
+                shrinkGenerate(term, index, node, candidates);
+        }
+    }
 
-        ISymbol symbol = getSymbol(needle);
+    // The generated term has at least one node, its actual size is only known once it is generated
+    private void shrinkGenerate(IStrategoTerm term, CompactTerm index, int node, CandidateQueue candidates) {
+        candidates.addEstimate(index.size(node) - 1, () -> {
+            Optional<IStrategoTerm> generatedTermOpt = generator
+                    .generateSymbol(index.symbol(node), index.size(node) - 1);
 
-        Optional<IStrategoTerm> generatedTermOpt = generator
-                .generateSymbol(symbol, size(needle) - 1);
+            return generatedTermOpt.map(generatedTerm -> replaceTerm(term, index.path(node), generatedTerm));
+        });
+    }
 
-        Optional<IStrategoTerm> replacedTermOpt = generatedTermOpt
-                .map(term -> replaceTerm(haystack, needle, term));
+    private void shrinkList(IStrategoTerm term, CompactTerm index, int list, CandidateQueue candidates) {
+        int minimumLength = isEmptyAllowed(index.symbol(list)) ? 0 : 1;
+        List<int[]> removals = listReduction.removals(index.arity(list), minimumLength);
 
-        return o2s(replacedTermOpt);
-    }
+        if (removals.isEmpty()) {
+            return;
+        }
 
-    private Stream<IStrategoTerm> shrinkList(IStrategoTerm haystack, IStrategoList list) {
-        logger.trace("Shrink list: " + list);
+        int[] path = index.path(list);
+        IStrategoList listTerm = (IStrategoList) subterm(term, path);
 
-        if (!isEmptyAllowed(list) && list.size() < 2) {
-            return empty();
+        // The number of nodes in the elements before each element
+        int[] offsets = new int[index.arity(list) + 1];
+
+        for (int i = 0, element = list + 1; i < index.arity(list); i++, element += index.size(element)) {
+            offsets[i + 1] = offsets[i] + index.size(element);
         }
 
-        return combinations(list).map(shrunkList ->
-                replaceTerm(haystack, list, shrunkList)
-        );
-    }
+        for (int[] removal : removals) {
+            long edit = CompactTerm.combine(index.fingerprint(list) ^ REMOVE, removal[0]);
+            edit = CompactTerm.combine(edit, removal[1]);
 
-    private boolean isEmptyAllowed(IStrategoList list) {
-        ISymbol symbol = getSymbol(list);
+            candidates.add(offsets[removal[1]] - offsets[removal[0]], edit, () ->
+                    replaceTerm(term, path, without(listTerm, removal[0], removal[1]))
+            );
+        }
+    }
 
+    private boolean isEmptyAllowed(ISymbol symbol) {
         if (symbol instanceof IterSymbol) {
             return false;
         } else if (symbol instanceof IterStarSymbol) {
             return true;
         }
 
-        throw new IllegalArgumentException("Cannot compute if empty is allowed for list: " + list);
+        throw new IllegalArgumentException("Cannot compute if empty is allowed for list of symbol: " + symbol);
     }
 
-    private Stream<IStrategoTerm> combinations(IStrategoList list) {
-        return IntStream.range(0, list.size()).mapToObj(exclude ->
-                without(list, exclude)
-        );
-    }
-
-    private IStrategoTerm without(IStrategoList list, int exclude) {
+    private IStrategoTerm without(IStrategoList list, int from, int to) {
         IStrategoTerm[] oldChildren = list.getAllSubterms();
-        IStrategoTerm[] newChildren = ArrayUtils.remove(oldChildren, exclude);
+        IStrategoTerm[] newChildren = ArrayUtils.addAll(
+                ArrayUtils.subarray(oldChildren, 0, from),
+                ArrayUtils.subarray(oldChildren, to, oldChildren.length)
+        );
 
         return termFactory.replaceList(newChildren, list);
     }
 
-    private Stream<IStrategoTerm> shrinkRecursive(IStrategoTerm haystack, IStrategoAppl appl) {
-        logger.trace("Shrink recursive: " + appl);
+    private void shrinkRecursive(IStrategoTerm term, CompactTerm index, int appl, CandidateQueue candidates) {
+        Set<Sort> injections = signature.getInjections(getSort(index.symbol(appl)));
+        int[] path = index.path(appl);
 
-        org.metaborg.spg.sentence.signature.Sort sort = getSort(appl);
-        Set<org.metaborg.spg.sentence.signature.Sort> injections = signature.getInjections(sort);
-        Stream<IStrategoTerm> descendants = descendants(appl);
+        // The descendants of a node are the nodes after it within its size
+        for (int descendant = appl + 1; descendant < appl + index.size(appl); descendant++) {
+            if (injections.contains(getSort(index.symbol(descendant)))) {
+                int replacement = descendant;
+                long edit = CompactTerm.combine(index.fingerprint(appl) ^ RECURSE, descendant - appl);
 
-        return zipWith(descendants, this::getSort)
-                .filter(pair -> injections.contains(pair.getValue()))
-                .map(pair -> replaceTerm(haystack, appl, pair.getKey()));
+                candidates.add(index.size(appl) - index.size(descendant), edit, () ->
+                        replaceTerm(term, path, subterm(term, index.path(replacement)))
+                );
+            }
+        }
     }
 
-    private Sort getSort(IStrategoTerm term) {
-        return getSort(getSymbol(term));
+    private Sort getSort(ISymbol symbol) {
+        Sort sort = sorts.get(symbol);
+
+        if (sort == null) {
+            sort = toSort(symbol);
+            sorts.put(symbol, sort);
+        }
+
+        return sort;
     }
 
-    private Sort getSort(ISymbol symbol) {
+    private Sort toSort(ISymbol symbol) {
         if (symbol instanceof org.metaborg.sdf2table.grammar.Sort) {
             org.metaborg.sdf2table.grammar.Sort sort = (org.metaborg.sdf2table.grammar.Sort) symbol;
 
@@ -146,19 +192,19 @@ public class Shrinker {
         } else if (symbol instanceof IterStarSymbol) {
             IterStarSymbol iterStarSymbol = (IterStarSymbol) symbol;
 
-            return new Sort("IterStar", getSort(iterStarSymbol.getSymbol()));
+            return new Sort("IterStar", toSort(iterStarSymbol.getSymbol()));
         } else if (symbol instanceof IterSymbol) {
             IterSymbol iterSymbol = (IterSymbol) symbol;
 
-            return new Sort("Iter", getSort(iterSymbol.getSymbol()));
+            return new Sort("Iter", toSort(iterSymbol.getSymbol()));
         } else if (symbol instanceof OptionalSymbol) {
             OptionalSymbol optionalSymbol = (OptionalSymbol) symbol;
 
-            return new Sort("Option", getSort(optionalSymbol.getSymbol()));
+            return new Sort("Option", toSort(optionalSymbol.getSymbol()));
         } else if (symbol instanceof ContextFreeSymbol) {
             ContextFreeSymbol contextFreeSymbol = (ContextFreeSymbol) symbol;
 
-            return getSort(contextFreeSymbol.getSymbol());
+            return toSort(contextFreeSymbol.getSymbol());
         } else if (symbol instanceof LexicalSymbol) {
             return new Sort("String");
         }
@@ -166,64 +212,46 @@ public class Shrinker {
         throw new IllegalArgumentException("Unable to convert symbol " + symbol + " to a sort.");
     }
 
-    private ISymbol getSymbol(IStrategoTerm term) {
-        GeneratorAttachment generatorAttachment = term.getAttachment(GeneratorAttachment.TYPE);
-
-        return generatorAttachment.getSymbol();
-    }
-
-    private IStrategoTerm replaceTerm(IStrategoTerm haystack, IStrategoTerm needle, IStrategoTerm replacement) {
-        if (haystack == needle) {
-            return replacement;
+    private IStrategoTerm subterm(IStrategoTerm term, int[] path) {
+        for (int index : path) {
+            term = term.getSubterm(index);
         }
 
-        IStrategoTerm[] children = Arrays
-                .stream(haystack.getAllSubterms())
-                .map(visitee -> replaceTerm(visitee, needle, replacement))
-                .toArray(IStrategoTerm[]::new);
+        return term;
+    }
 
-        if (haystack instanceof IStrategoAppl) {
-            IStrategoAppl appl = (IStrategoAppl) haystack;
+    private IStrategoTerm replaceTerm(IStrategoTerm haystack, int[] path, IStrategoTerm replacement) {
+        IStrategoTerm[] ancestors = new IStrategoTerm[path.length];
+        IStrategoTerm term = haystack;
 
-            return termFactory.replaceAppl(appl.getConstructor(), children, appl);
-        } else if (haystack instanceof IStrategoList) {
-            IStrategoList list = (IStrategoList) haystack;
-
-            return termFactory.replaceList(children, list);
-        } else if (haystack instanceof IStrategoString) {
-            return haystack;
+        for (int i = 0; i < path.length; i++) {
+            ancestors[i] = term;
+            term = term.getSubterm(path[i]);
         }
 
-        throw new IllegalArgumentException("Unable to replace in haystack: " + haystack);
-    }
+        IStrategoTerm result = replacement;
 
-    private int size(IStrategoTerm term) {
-        if (term instanceof IStrategoString) {
-            return 1;
-        } else if (term instanceof IStrategoAppl || term instanceof IStrategoList) {
-            return 1 + Arrays.stream(term.getAllSubterms()).mapToInt(this::size).sum();
+        for (int i = path.length - 1; i >= 0; i--) {
+            IStrategoTerm[] children = ancestors[i].getAllSubterms().clone();
+            children[path[i]] = result;
+
+            result = replaceChildren(ancestors[i], children);
         }
 
-        throw new IllegalStateException("Unknown term: " + term);
+        return result;
     }
 
-    private Stream<IStrategoTerm> descendants(IStrategoTerm term) {
-        Stream<IStrategoTerm> children = Arrays.stream(term.getAllSubterms());
+    private IStrategoTerm replaceChildren(IStrategoTerm term, IStrategoTerm[] children) {
+        if (term instanceof IStrategoAppl) {
+            IStrategoAppl appl = (IStrategoAppl) term;
 
-        return flatMap(children, this::subTerms);
-    }
+            return termFactory.replaceAppl(appl.getConstructor(), children, appl);
+        } else if (term instanceof IStrategoList) {
+            IStrategoList list = (IStrategoList) term;
 
-    private Stream<IStrategoTerm> subTerms(IStrategoTerm term) {
-        if (term instanceof IStrategoString) {
-            return of(term);
-        } else if (term instanceof IStrategoAppl || term instanceof IStrategoList) {
-            return cons(term, subTerms(term.getAllSubterms()));
+            return termFactory.replaceList(children, list);
         }
 
-        throw new IllegalStateException("Unknown term: " + term);
-    }
-
-    private Stream<IStrategoTerm> subTerms(IStrategoTerm[] terms) {
-        return flatMap(Arrays.stream(terms), this::subTerms);
+        throw new IllegalArgumentException("Unable to replace in haystack: " + term);
     }
 }
@@ -3,11 +3,14 @@ package org.metaborg.spg.sentence.shrinker;
 import com.google.inject.Inject;
 import org.metaborg.spg.sentence.random.IRandom;
 import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.shared.shrinker.ListReduction;
 import org.metaborg.spg.sentence.signature.Signature;
 import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
 import org.spoofax.interpreter.terms.ITermFactory;
 
 public class ShrinkerFactory {
+    public static final String STREAM = "shrinker";
+
     private final IRandom random;
     private final GeneratorTermFactory termFactory;
 
@@ -18,6 +21,15 @@ public class ShrinkerFactory {
     }
 
     public Shrinker create(Generator generator, Signature signature) {
-        return new Shrinker(random, termFactory, generator, signature);
+        return create(generator, signature, ListReduction.SINGLE);
+    }
+
+    public Shrinker create(Generator generator, Signature signature, ListReduction listReduction) {
+        return create(generator, signature, listReduction, random);
+    }
+
+    // Forks the stream of the shrinker from the given root instead of the root of the module
+    public Shrinker create(Generator generator, Signature signature, ListReduction listReduction, IRandom root) {
+        return new Shrinker(root.fork(STREAM), termFactory, generator, signature, listReduction);
     }
 }
@@ -0,0 +1,69 @@
+package org.metaborg.spg.sentence.statistics;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.metaborg.sdf2table.grammar.IProduction;
+
+public class CoverageStatistics {
+    private static final DecimalFormat decimalFormat = new DecimalFormat("#.##");
+    private static final int MAX_LISTED = 10;
+
+    private final int productions;
+    private final int covered;
+    private final long hits;
+    private final List<IProduction> uncovered;
+
+    public CoverageStatistics(int productions, int covered, long hits, List<IProduction> uncovered) {
+        this.productions = productions;
+        this.covered = covered;
+        this.hits = hits;
+        this.uncovered = new ArrayList<>(uncovered);
+    }
+
+    public int getProductions() {
+        return productions;
+    }
+
+    public int getCovered() {
+        return covered;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public List<IProduction> getUncovered() {
+        return uncovered;
+    }
+
+    public double getPercentage() {
+        if (productions == 0) {
+            return 100;
+        }
+
+        return 100.0 * covered / productions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("coverage: ")
+                .append(covered).append(" of ")
+                .append(productions).append(" productions (")
+                .append(decimalFormat.format(getPercentage())).append("%), ")
+                .append(hits).append(" hits\n");
+
+        for (int i = 0; i < Math.min(MAX_LISTED, uncovered.size()); i++) {
+            builder.append("  uncovered: ").append(uncovered.get(i)).append("\n");
+        }
+
+        if (uncovered.size() > MAX_LISTED) {
+            builder.append("  ... and ").append(uncovered.size() - MAX_LISTED).append(" more\n");
+        }
+
+        return builder.toString();
+    }
+}
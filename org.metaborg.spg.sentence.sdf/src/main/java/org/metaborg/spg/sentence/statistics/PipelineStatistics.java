@@ -0,0 +1,25 @@
+package org.metaborg.spg.sentence.statistics;
+
+import java.util.List;
+
+public class PipelineStatistics {
+    private final List<StageStatistics> stages;
+
+    public PipelineStatistics(List<StageStatistics> stages) {
+        this.stages = stages;
+    }
+
+    public List<StageStatistics> getStages() {
+        return stages;
+    }
+
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (StageStatistics stage : stages) {
+            stringBuilder.append(stage).append("\n");
+        }
+
+        return stringBuilder.append("\n").toString();
+    }
+}
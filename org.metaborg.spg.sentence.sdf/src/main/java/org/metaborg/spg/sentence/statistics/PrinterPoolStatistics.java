@@ -0,0 +1,90 @@
+package org.metaborg.spg.sentence.statistics;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+public class PrinterPoolStatistics {
+    private static final DecimalFormat decimalFormat = new DecimalFormat("#.##");
+
+    private final int size;
+    private final long checkouts;
+    private final long waiting;
+    private final long[] latencies;
+    private final long templatePrints;
+    private final long fallbacks;
+    private final long verifications;
+    private final long mismatches;
+
+    public PrinterPoolStatistics(int size, long checkouts, long waiting, long[] latencies, long templatePrints,
+            long fallbacks, long verifications, long mismatches) {
+        this.size = size;
+        this.checkouts = checkouts;
+        this.waiting = waiting;
+        this.latencies = latencies.clone();
+        this.templatePrints = templatePrints;
+        this.fallbacks = fallbacks;
+        this.verifications = verifications;
+        this.mismatches = mismatches;
+
+        Arrays.sort(this.latencies);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    public long getTemplatePrints() {
+        return templatePrints;
+    }
+
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    public long getVerifications() {
+        return verifications;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    // Mean time a print waited for an idle printer, in milliseconds
+    public double getMeanWait() {
+        if (checkouts == 0) {
+            return 0;
+        }
+
+        return waiting / (double) checkouts / 1000000;
+    }
+
+    // Print latency at the given percentile of the recent prints, in milliseconds
+    public double getLatency(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1000000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "printer pool: "
+                + size + " printers, "
+                + checkouts + " Stratego prints, "
+                + templatePrints + " template prints ("
+                + fallbacks + " fallbacks, "
+                + verifications + " verified, "
+                + mismatches + " mismatches), "
+                + decimalFormat.format(getMeanWait()) + " ms mean wait, latency "
+                + decimalFormat.format(getLatency(50)) + "/"
+                + decimalFormat.format(getLatency(90)) + "/"
+                + decimalFormat.format(getLatency(99)) + " ms (p50/p90/p99)\n";
+    }
+}
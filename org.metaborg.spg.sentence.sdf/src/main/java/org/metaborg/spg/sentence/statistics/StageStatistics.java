@@ -0,0 +1,95 @@
+package org.metaborg.spg.sentence.statistics;
+
+import java.text.DecimalFormat;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StageStatistics {
+    private static final DecimalFormat decimalFormat = new DecimalFormat("#.#");
+
+    private final String name;
+    private final int threads;
+    private final Collection<?> output;
+    private final long start;
+    private final LongAdder items;
+    private final LongAdder busy;
+    private final LongAdder blocked;
+    private final LongAdder starved;
+
+    public StageStatistics(String name, int threads, Collection<?> output) {
+        this.name = name;
+        this.threads = threads;
+        this.output = output;
+        this.start = System.nanoTime();
+        this.items = new LongAdder();
+        this.busy = new LongAdder();
+        this.blocked = new LongAdder();
+        this.starved = new LongAdder();
+    }
+
+    public void processed(long duration) {
+        items.increment();
+        busy.add(duration);
+    }
+
+    public void blocked(long duration) {
+        blocked.add(duration);
+    }
+
+    public void starved(long duration) {
+        starved.add(duration);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    public int getQueued() {
+        if (output == null) {
+            return 0;
+        }
+
+        return output.size();
+    }
+
+    public double getUtilisation() {
+        return fraction(busy.sum());
+    }
+
+    public double getBackpressure() {
+        return fraction(blocked.sum());
+    }
+
+    public double getStarvation() {
+        return fraction(starved.sum());
+    }
+
+    private double fraction(long duration) {
+        long elapsed = (System.nanoTime() - start) * threads;
+
+        if (elapsed <= 0) {
+            return 0;
+        }
+
+        return duration / (double) elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": "
+                + threads + " threads, "
+                + getItems() + " items, "
+                + getQueued() + " queued, "
+                + decimalFormat.format(getUtilisation() * 100) + "% busy, "
+                + decimalFormat.format(getBackpressure() * 100) + "% blocked, "
+                + decimalFormat.format(getStarvation() * 100) + "% starved";
+    }
+}
@@ -0,0 +1,177 @@
+package org.metaborg.spg.sentence.terms;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoList;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+/**
+ * A generated term flattened into arrays in pre-order. The first child of node {@code i} is at {@code i + 1} and every
+ * child is followed by its next sibling at an offset of its subtree size. Sizes are taken from the attachments of the
+ * terms; depths and positions depend on where a (possibly shared) subterm occurs and are recorded while flattening.
+ *
+ * A node takes a slot in a few arrays instead of a term, its children array and its attachment, so a term is cheap to
+ * index. Nodes are addressed by position, which also tells shared subterms apart.
+ */
+public final class CompactTerm {
+    public static final byte STRING = 0;
+    public static final byte APPL = 1;
+    public static final byte LIST = 2;
+
+    private static final long PRIME = 0x100000001b3L;
+    private static final long OFFSET = 0xcbf29ce484222325L;
+
+    private final byte[] kinds;
+    private final ISymbol[] symbols;
+    private final String[] labels;
+    private final int[] arities;
+    private final int[] sizes;
+    private final int[] depths;
+    private final long[] fingerprints;
+
+    private CompactTerm(int length) {
+        this.kinds = new byte[length];
+        this.symbols = new ISymbol[length];
+        this.labels = new String[length];
+        this.arities = new int[length];
+        this.sizes = new int[length];
+        this.depths = new int[length];
+        this.fingerprints = new long[length];
+    }
+
+    public static CompactTerm of(IStrategoTerm term) {
+        CompactTerm compactTerm = new CompactTerm(GeneratorAttachment.getSize(term));
+        Deque<IStrategoTerm> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        int node = 0;
+
+        stack.push(term);
+        depths.push(0);
+
+        while (!stack.isEmpty()) {
+            IStrategoTerm subterm = stack.pop();
+            IStrategoTerm[] children = subterm.getAllSubterms();
+            int depth = depths.pop();
+
+            compactTerm.set(node++, subterm, depth);
+
+            for (int i = children.length - 1; i >= 0; i--) {
+                stack.push(children[i]);
+                depths.push(depth + 1);
+            }
+        }
+
+        compactTerm.fingerprint();
+
+        return compactTerm;
+    }
+
+    public int length() {
+        return kinds.length;
+    }
+
+    public byte kind(int node) {
+        return kinds[node];
+    }
+
+    public ISymbol symbol(int node) {
+        return symbols[node];
+    }
+
+    public String label(int node) {
+        return labels[node];
+    }
+
+    public int arity(int node) {
+        return arities[node];
+    }
+
+    public int size(int node) {
+        return sizes[node];
+    }
+
+    public int depth(int node) {
+        return depths[node];
+    }
+
+    // Identifies a node by the child indices that lead to it and by its content
+    public long fingerprint(int node) {
+        return fingerprints[node];
+    }
+
+    public static long combine(long hash, long value) {
+        hash = (hash ^ value) * PRIME;
+
+        return hash ^ (hash >>> 29);
+    }
+
+    // The child indices that lead from the root to the given node
+    public int[] path(int node) {
+        int[] path = new int[depths[node]];
+        int ancestor = 0;
+
+        for (int i = 0; i < path.length; i++) {
+            int child = ancestor + 1;
+
+            while (child + sizes[child] <= node) {
+                child += sizes[child];
+                path[i]++;
+            }
+
+            ancestor = child;
+        }
+
+        return path;
+    }
+
+    private void set(int node, IStrategoTerm term, int depth) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+
+        symbols[node] = attachment.getSymbol();
+        arities[node] = term.getSubtermCount();
+        sizes[node] = attachment.getSize();
+        depths[node] = depth;
+
+        if (term instanceof IStrategoString) {
+            kinds[node] = STRING;
+            labels[node] = ((IStrategoString) term).stringValue();
+        } else if (term instanceof IStrategoAppl) {
+            kinds[node] = APPL;
+            labels[node] = ((IStrategoAppl) term).getConstructor().getName();
+        } else if (term instanceof IStrategoList) {
+            kinds[node] = LIST;
+        } else {
+            throw new IllegalArgumentException("Unknown term: " + term);
+        }
+    }
+
+    private void fingerprint() {
+        long[] contents = new long[length()];
+        long[] paths = new long[length()];
+
+        for (int i = length() - 1; i >= 0; i--) {
+            long hash = combine(combine(OFFSET, kinds[i]), labels[i] == null ? 0 : labels[i].hashCode());
+
+            for (int k = 0, child = i + 1; k < arities[i]; k++, child += sizes[child]) {
+                hash = combine(hash, contents[child]);
+            }
+
+            contents[i] = combine(hash, arities[i]);
+        }
+
+        paths[0] = OFFSET;
+
+        for (int i = 0; i < length(); i++) {
+            for (int k = 0, child = i + 1; k < arities[i]; k++, child += sizes[child]) {
+                paths[child] = combine(paths[i], k);
+            }
+
+            fingerprints[i] = combine(paths[i], contents[i]);
+        }
+    }
+}
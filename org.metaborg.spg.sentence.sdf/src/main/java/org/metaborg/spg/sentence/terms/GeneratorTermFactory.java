@@ -1,6 +1,11 @@
 package org.metaborg.spg.sentence.terms;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.metaborg.sdf2table.grammar.ISymbol;
 import org.metaborg.sdf2table.grammar.Symbol;
@@ -14,82 +19,250 @@ import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.terms.StrategoConstructor;
 import org.spoofax.terms.attachments.AbstractWrappedTermFactory;
 
+/**
+ * Creates the terms of the generator, each with a {@link GeneratorAttachment} that records its symbol and its size.
+ *
+ * Constructors are interned by name and arity. In hash-consing mode, terms with the same symbol, the same head and the
+ * same (already shared) children are created once and shared. Shared terms may occur several times in one tree, so
+ * code that needs to tell occurrences apart must go by position rather than by identity.
+ */
 public class GeneratorTermFactory extends AbstractWrappedTermFactory {
+    private static final int HASH_CONS_CAPACITY = 1 << 20;
+    private static final IStrategoTerm[] NO_CHILDREN = new IStrategoTerm[0];
+
     private final ITermFactory baseFactory;
+    private final boolean hashConsing;
+    private final Map<String, IStrategoConstructor[]> constructors;
+    private final Map<Node, IStrategoTerm> terms;
 
     public GeneratorTermFactory(ITermFactory baseFactory) {
+        this(baseFactory, false);
+    }
+
+    public GeneratorTermFactory(ITermFactory baseFactory, boolean hashConsing) {
         super(baseFactory);
 
         this.baseFactory = baseFactory;
+        this.hashConsing = hashConsing;
+        this.constructors = new ConcurrentHashMap<>();
+        this.terms = new ConcurrentHashMap<>();
+    }
+
+    public boolean isHashConsing() {
+        return hashConsing;
     }
 
     public IStrategoString makeString(ISymbol symbol, String text) {
-        IStrategoString string = baseFactory.makeString(text);
-        string.putAttachment(new GeneratorAttachment(symbol));
+        if (hashConsing) {
+            return intern(new Node(Node.STRING, symbol, text, NO_CHILDREN), () -> createString(symbol, text));
+        }
 
-        return string;
+        return createString(symbol, text);
     }
 
     public IStrategoTerm makeSome(Symbol symbol, IStrategoTerm term) {
-        IStrategoAppl appl = makeAppl(makeConstructor("Some", 1), term);
-        appl.putAttachment(new GeneratorAttachment(symbol));
-
-        return appl;
+        return makeAppl("Some", new IStrategoTerm[] { term }, symbol);
     }
 
     public IStrategoTerm makeNone(Symbol symbol) {
-        IStrategoAppl appl = makeAppl(makeConstructor("None", 0));
-        appl.putAttachment(new GeneratorAttachment(symbol));
-
-        return appl;
+        return makeAppl("None", NO_CHILDREN, symbol);
     }
 
     public IStrategoAppl makeAppl(ISymbol symbol, String constructorName, List<IStrategoTerm> children) {
         IStrategoTerm[] terms = new IStrategoTerm[children.size()];
-        IStrategoAppl appl = makeAppl(constructorName, children.toArray(terms), symbol);
-        appl.putAttachment(new GeneratorAttachment(symbol));
 
-        return appl;
+        return makeAppl(constructorName, children.toArray(terms), symbol);
     }
 
     public IStrategoAppl makeAppl(String constructorName, IStrategoTerm[] children, ISymbol symbol) {
-        IStrategoConstructor constructor = new StrategoConstructor(constructorName, children.length);
-        IStrategoAppl appl = baseFactory.makeAppl(constructor, children, null);
-        appl.putAttachment(new GeneratorAttachment(symbol));
+        if (hashConsing) {
+            Node node = new Node(Node.APPL, symbol, constructorName, children);
 
-        return appl;
+            return intern(node, () -> createAppl(constructorName, children, symbol));
+        }
+
+        return createAppl(constructorName, children, symbol);
     }
 
     public IStrategoList makeList(Symbol symbol, IStrategoTerm... terms) {
-        IStrategoList list = baseFactory.makeList(terms);
-        list.putAttachment(new GeneratorAttachment(symbol));
+        if (hashConsing) {
+            return intern(new Node(Node.LIST, symbol, null, terms), () -> createList(symbol, terms));
+        }
 
-        return list;
+        return createList(symbol, terms);
     }
 
     public IStrategoList makeListCons(Symbol symbol, IStrategoTerm head, IStrategoList tail) {
-        IStrategoList list = baseFactory.makeListCons(head, tail);
-        list.putAttachment(new GeneratorAttachment(symbol));
+        if (hashConsing) {
+            Node node = new Node(Node.CONS, symbol, null, new IStrategoTerm[] { head, tail });
 
-        return list;
+            return intern(node, () -> createListCons(symbol, head, tail));
+        }
+
+        return createListCons(symbol, head, tail);
     }
 
     public IStrategoAppl replaceAppl(IStrategoTerm[] children, IStrategoAppl oldAppl) {
         return replaceAppl(oldAppl.getConstructor(), children, oldAppl);
     }
 
+    // In hash-consing mode, generated terms are replaced through the same table as they are made, so a replaced term is
+    // shared with an equal term that was made or replaced before. Other attachments than the generator's are not kept.
     @Override
     public IStrategoAppl replaceAppl(IStrategoConstructor constructor, IStrategoTerm[] children,
         IStrategoAppl oldAppl) {
+        GeneratorAttachment attachment = oldAppl.getAttachment(GeneratorAttachment.TYPE);
+
+        if (hashConsing && attachment != null) {
+            return makeAppl(constructor.getName(), children, attachment.getSymbol());
+        }
+
         IStrategoAppl newAppl = baseFactory.replaceAppl(constructor, children, oldAppl);
 
-        return (IStrategoAppl) baseFactory.copyAttachments(oldAppl, newAppl);
+        return resize((IStrategoAppl) baseFactory.copyAttachments(oldAppl, newAppl), children);
     }
 
     @Override
     public IStrategoList replaceList(IStrategoTerm[] children, IStrategoList oldList) {
+        GeneratorAttachment attachment = oldList.getAttachment(GeneratorAttachment.TYPE);
+
+        if (hashConsing && attachment != null) {
+            ISymbol symbol = attachment.getSymbol();
+
+            return intern(new Node(Node.LIST, symbol, null, children), () -> createList(symbol, children));
+        }
+
         IStrategoList newList = baseFactory.replaceList(children, oldList);
 
-        return (IStrategoList) baseFactory.copyAttachments(oldList, newList);
+        return resize((IStrategoList) baseFactory.copyAttachments(oldList, newList), children);
+    }
+
+    // The copied attachment has the size of the old term, replace it by one with the size of the new children
+    private <T extends IStrategoTerm> T resize(T term, IStrategoTerm[] children) {
+        GeneratorAttachment attachment = term.getAttachment(GeneratorAttachment.TYPE);
+
+        if (attachment != null) {
+            term.putAttachment(new GeneratorAttachment(attachment.getSymbol(), GeneratorAttachment.getSize(children)));
+        }
+
+        return term;
+    }
+
+    private IStrategoString createString(ISymbol symbol, String text) {
+        IStrategoString string = baseFactory.makeString(text);
+        string.putAttachment(new GeneratorAttachment(symbol, 1));
+
+        return string;
+    }
+
+    private IStrategoAppl createAppl(String constructorName, IStrategoTerm[] children, ISymbol symbol) {
+        IStrategoConstructor constructor = constructor(constructorName, children.length);
+        IStrategoAppl appl = baseFactory.makeAppl(constructor, children, null);
+        appl.putAttachment(new GeneratorAttachment(symbol, GeneratorAttachment.getSize(children)));
+
+        return appl;
+    }
+
+    private IStrategoList createList(ISymbol symbol, IStrategoTerm[] terms) {
+        IStrategoList list = baseFactory.makeList(terms);
+        list.putAttachment(new GeneratorAttachment(symbol, GeneratorAttachment.getSize(terms)));
+
+        return list;
+    }
+
+    private IStrategoList createListCons(Symbol symbol, IStrategoTerm head, IStrategoList tail) {
+        IStrategoList list = baseFactory.makeListCons(head, tail);
+        int size = GeneratorAttachment.getSize(head) + GeneratorAttachment.getSize(tail);
+        list.putAttachment(new GeneratorAttachment(symbol, size));
+
+        return list;
+    }
+
+    private IStrategoConstructor constructor(String name, int arity) {
+        IStrategoConstructor[] byArity = constructors.get(name);
+
+        if (byArity == null || byArity.length <= arity || byArity[arity] == null) {
+            byArity = constructors.compute(name, (key, current) -> {
+                IStrategoConstructor[] updated = current == null
+                        ? new IStrategoConstructor[arity + 1]
+                        : Arrays.copyOf(current, Math.max(current.length, arity + 1));
+
+                if (updated[arity] == null) {
+                    updated[arity] = new StrategoConstructor(name, arity);
+                }
+
+                return updated;
+            });
+        }
+
+        return byArity[arity];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends IStrategoTerm> T intern(Node node, Supplier<T> supplier) {
+        // The table is emptied when it is full; terms created before stay valid but are no longer shared
+        if (terms.size() >= HASH_CONS_CAPACITY) {
+            terms.clear();
+        }
+
+        return (T) terms.computeIfAbsent(node, key -> supplier.get());
+    }
+
+    // The identity of a term for hash-consing; children are compared by reference since they are shared already
+    private static class Node {
+        private static final int STRING = 0;
+        private static final int APPL = 1;
+        private static final int LIST = 2;
+        private static final int CONS = 3;
+
+        private final int kind;
+        private final ISymbol symbol;
+        private final String head;
+        private final IStrategoTerm[] children;
+        private final int hash;
+
+        public Node(int kind, ISymbol symbol, String head, IStrategoTerm[] children) {
+            this.kind = kind;
+            this.symbol = symbol;
+            this.head = head;
+            this.children = children;
+            this.hash = hash(kind, symbol, head, children);
+        }
+
+        private static int hash(int kind, ISymbol symbol, String head, IStrategoTerm[] children) {
+            int hash = 31 * (31 * kind + Objects.hashCode(symbol)) + Objects.hashCode(head);
+
+            for (IStrategoTerm child : children) {
+                hash = 31 * hash + System.identityHashCode(child);
+            }
+
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Node)) {
+                return false;
+            }
+
+            Node other = (Node) object;
+
+            if (hash != other.hash || kind != other.kind || children.length != other.children.length) {
+                return false;
+            }
+
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != other.children[i]) {
+                    return false;
+                }
+            }
+
+            return Objects.equals(head, other.head) && Objects.equals(symbol, other.symbol);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
@@ -0,0 +1,75 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.spg.sentence.ambiguity.result.DedupStatistics;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeduplicatorTest {
+    private final GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+    private final GrammarFactory gf = new GrammarFactory();
+
+    @Test
+    public void testTexts() {
+        Deduplicator deduplicator = new Deduplicator(100);
+
+        assertFalse(deduplicator.seen("1 + 2", 0));
+        assertTrue(deduplicator.seen("1 + 2", 1));
+        assertFalse(deduplicator.seen("1 + 3", 2));
+    }
+
+    @Test
+    public void testEqualTerms() {
+        Deduplicator deduplicator = new Deduplicator(100);
+
+        assertFalse(deduplicator.seen(term("Exp", "1"), 0));
+        assertTrue(deduplicator.seen(term("Exp", "1"), 1));
+        assertFalse(deduplicator.seen(term("Exp", "2"), 2));
+    }
+
+    @Test
+    public void testSymbolIsIncluded() {
+        Deduplicator deduplicator = new Deduplicator(100);
+
+        assertFalse(deduplicator.seen(term("Exp", "1"), 0));
+        assertFalse(deduplicator.seen(term("Stm", "1"), 1));
+    }
+
+    // Workers may reach the same term in any order, the lowest index always tests it
+    @Test
+    public void testLowestIndexWins() {
+        Deduplicator deduplicator = new Deduplicator(100);
+
+        assertFalse(deduplicator.seen("1 + 2", 8));
+        assertFalse(deduplicator.seen("1 + 2", 4));
+        assertTrue(deduplicator.seen("1 + 2", 6));
+    }
+
+    @Test
+    public void testStatistics() {
+        Deduplicator deduplicator = new Deduplicator(100);
+
+        deduplicator.seen(term("Exp", "1"), 0);
+        deduplicator.seen(term("Exp", "1"), 1);
+        deduplicator.seen("1", 0);
+
+        DedupStatistics statistics = deduplicator.statistics();
+
+        assertEquals(1, statistics.termHits());
+        assertEquals(0, statistics.textHits());
+        assertEquals(0, statistics.dropped());
+    }
+
+    private IStrategoTerm term(String sort, String text) {
+        ISymbol symbol = gf.createContextFreeSymbol(gf.createSort(sort));
+
+        return termFactory.makeAppl("Num", new IStrategoTerm[] { termFactory.makeString(symbol, text) }, symbol);
+    }
+}
@@ -0,0 +1,58 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FingerprintSetTest {
+    @Test
+    public void testAdd() {
+        FingerprintSet set = new FingerprintSet(16);
+
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testZero() {
+        FingerprintSet set = new FingerprintSet(16);
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+    }
+
+    @Test
+    public void testLowestIndexWins() {
+        FingerprintSet set = new FingerprintSet(16);
+
+        // A fingerprint is new to a lower index than the one it was recorded with, in whatever order they arrive
+        assertTrue(set.add(42, 5));
+        assertFalse(set.add(42, 7));
+        assertTrue(set.add(42, 3));
+        assertFalse(set.add(42, 5));
+        assertFalse(set.add(42, 3));
+    }
+
+    @Test
+    public void testGrow() {
+        FingerprintSet set = new FingerprintSet(16);
+
+        for (long fingerprint = 1; fingerprint <= 10000; fingerprint++) {
+            assertTrue(set.add(fingerprint * 0x9e3779b97f4a7c15L));
+        }
+
+        for (long fingerprint = 1; fingerprint <= 10000; fingerprint++) {
+            assertTrue(set.contains(fingerprint * 0x9e3779b97f4a7c15L));
+        }
+
+        assertEquals(10000, set.size());
+        assertEquals(0, set.dropped());
+    }
+}
@@ -0,0 +1,63 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.spg.sentence.ambiguity.result.ParseCacheStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ParseCacheTest {
+    @Test
+    public void testGet() {
+        ParseCache parseCache = new ParseCache(2);
+
+        assertNull(parseCache.get("a"));
+
+        parseCache.put("a", ParseCache.Verdict.AMBIGUOUS);
+
+        assertEquals(ParseCache.Verdict.AMBIGUOUS, parseCache.get("a"));
+    }
+
+    @Test
+    public void testEvictsEldest() {
+        ParseCache parseCache = new ParseCache(2);
+
+        parseCache.put("a", ParseCache.Verdict.AMBIGUOUS);
+        parseCache.put("b", ParseCache.Verdict.UNAMBIGUOUS);
+        parseCache.put("c", ParseCache.Verdict.FAILED);
+
+        assertNull(parseCache.get("a"));
+        assertEquals(ParseCache.Verdict.UNAMBIGUOUS, parseCache.get("b"));
+        assertEquals(ParseCache.Verdict.FAILED, parseCache.get("c"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ParseCache parseCache = new ParseCache(2);
+
+        parseCache.put("a", ParseCache.Verdict.AMBIGUOUS);
+        parseCache.put("b", ParseCache.Verdict.UNAMBIGUOUS);
+        parseCache.get("a");
+        parseCache.put("c", ParseCache.Verdict.FAILED);
+
+        assertEquals(ParseCache.Verdict.AMBIGUOUS, parseCache.get("a"));
+        assertNull(parseCache.get("b"));
+    }
+
+    @Test
+    public void testStatistics() {
+        ParseCache parseCache = new ParseCache(2);
+
+        parseCache.get("a");
+        parseCache.put("a", ParseCache.Verdict.AMBIGUOUS);
+        parseCache.get("a");
+        parseCache.put("b", ParseCache.Verdict.UNAMBIGUOUS);
+        parseCache.put("c", ParseCache.Verdict.UNAMBIGUOUS);
+
+        ParseCacheStatistics statistics = parseCache.statistics();
+
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+        assertEquals(2, statistics.size());
+    }
+}
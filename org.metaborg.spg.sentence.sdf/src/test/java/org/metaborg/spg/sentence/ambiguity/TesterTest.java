@@ -0,0 +1,144 @@
+package org.metaborg.spg.sentence.ambiguity;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.ConstructorAttribute;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.NormGrammar;
+import org.metaborg.sdf2table.grammar.Production;
+import org.metaborg.spg.sentence.ambiguity.result.FindResult;
+import org.metaborg.spg.sentence.ambiguity.result.ShrinkResult;
+import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.generator.GeneratorConfig;
+import org.metaborg.spg.sentence.printer.Printer;
+import org.metaborg.spg.sentence.printer.PrinterPool;
+import org.metaborg.spg.sentence.random.SplitRandom;
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
+import org.metaborg.spg.sentence.shrinker.Shrinker;
+import org.metaborg.spg.sentence.signature.Signature;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TesterTest {
+    private static final int MAX_NUMBER_OF_TERMS = 1000;
+    private static final int MAX_TERM_SIZE = 20;
+    private static final int THREADS = 4;
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+    private final GrammarFactory gf = new GrammarFactory();
+
+    @Test
+    public void testParallelFind() {
+        for (GeneratorConfig.Selection selection : GeneratorConfig.Selection.values()) {
+            FindResult sequential = find(selection, new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, 1));
+            FindResult parallel = find(selection, new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, THREADS));
+
+            assertTrue(sequential.found());
+            assertEquals(sequential.terms(), parallel.terms());
+            assertEquals(sequential.text(), parallel.text());
+        }
+    }
+
+    @Test
+    public void testPipelinedFind() {
+        for (GeneratorConfig.Selection selection : GeneratorConfig.Selection.values()) {
+            FindResult sequential = find(selection, new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, 1));
+            FindResult pipelined = find(selection,
+                    new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, new PipelineConfig(THREADS)));
+
+            assertTrue(sequential.found());
+            assertEquals(sequential.terms(), pipelined.terms());
+            assertEquals(sequential.text(), pipelined.text());
+        }
+    }
+
+    @Test
+    public void testSpeculativeShrink() {
+        FindResult findResult = find(GeneratorConfig.Selection.UNIFORM,
+                new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, 1));
+        IStrategoTerm term = findResult.term();
+
+        List<String> sequential = new ArrayList<>();
+        List<String> speculative = new ArrayList<>();
+        ShrinkResult sequentialResult = tester(GeneratorConfig.Selection.UNIFORM).shrink(term, progress(sequential));
+        ShrinkResult speculativeResult = assertTimeoutPreemptively(TIMEOUT,
+                () -> tester(GeneratorConfig.Selection.UNIFORM).shrink(term,
+                        new TesterConfig(MAX_NUMBER_OF_TERMS, MAX_TERM_SIZE, THREADS), progress(speculative)));
+
+        // Every step commits the same candidate, so the shrinks pass through the same sentences
+        assertEquals(sequential, speculative);
+        assertEquals(sequentialResult.text(), speculativeResult.text());
+        assertEquals(sequentialResult.steps().size(), speculativeResult.steps().size());
+        assertTrue(speculativeResult.text().length() <= findResult.text().length());
+    }
+
+    private FindResult find(GeneratorConfig.Selection selection, TesterConfig config) {
+        Tester tester = tester(selection);
+
+        return assertTimeoutPreemptively(TIMEOUT, () -> tester.find(config, progress(new ArrayList<>())));
+    }
+
+    // Only records the shrunk sentences, which are reported by the thread that commits the shrink steps
+    private TesterProgress progress(List<String> shrunk) {
+        return new TesterProgress() {
+            @Override
+            public void sentenceGenerated(String text) {
+            }
+
+            @Override
+            public void sentenceShrinked(String text) {
+                shrunk.add(text);
+            }
+        };
+    }
+
+    // Prints terms as their ATerm and calls a sentence ambiguous if its root starts with five nested additions
+    private Tester tester(GeneratorConfig.Selection selection) {
+        NormGrammar grammar = new NormGrammar();
+        production(grammar, "Zero");
+        production(grammar, "Add", cf("Exp"), cf("Exp"));
+
+        Generator generator = new Generator(termFactory, new SplitRandom(42), "Exp", grammar,
+                ListLengthStrategy.DEFAULT, selection);
+        Shrinker shrinker = new Shrinker(new SplitRandom(42), termFactory, generator,
+                new Signature(Collections.emptyList()));
+        PrinterPool printerPool = new PrinterPool(() -> new Printer(null, null) {
+            @Override
+            public String print(IStrategoTerm term) {
+                return term.toString();
+            }
+        }, 1);
+
+        return new Tester(termFactory, null, null, null, printerPool, generator, shrinker, new SplitRandom(42)) {
+            @Override
+            protected ParseCache.Verdict classify(String text) {
+                return text.startsWith("Add(Add(Add(Add(Add(")
+                        ? ParseCache.Verdict.AMBIGUOUS
+                        : ParseCache.Verdict.UNAMBIGUOUS;
+            }
+        };
+    }
+
+    private void production(NormGrammar grammar, String constructor, ISymbol... rhs) {
+        Production production = gf.createProduction(cf("Exp"), Arrays.asList(rhs));
+
+        grammar.getCacheProductionsRead().put(production.toString(), production);
+        grammar.getProductionAttributesMapping().put(production, new ConstructorAttribute(constructor));
+    }
+
+    private ISymbol cf(String sort) {
+        return gf.createContextFreeSymbol(gf.createSort(sort));
+    }
+}
@@ -0,0 +1,119 @@
+package org.metaborg.spg.sentence.generator;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.ConstructorAttribute;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.NormGrammar;
+import org.metaborg.sdf2table.grammar.Production;
+import org.metaborg.spg.sentence.random.SplitRandom;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EnumeratorTest {
+    private final GrammarFactory gf = new GrammarFactory();
+    private final NormGrammar grammar = new NormGrammar();
+
+    @Test
+    public void testCount() {
+        production("Zero", cf("Exp"));
+        production("Add", cf("Exp"), cf("Exp"), cf("Exp"));
+
+        Enumerator enumerator = new Enumerator(generator());
+        long[] counts = { 0, 1, 0, 1, 0, 2, 0, 5, 0, 14 };
+
+        for (int size = 0; size < counts.length; size++) {
+            assertEquals(BigInteger.valueOf(counts[size]), enumerator.count(cf("Exp"), size));
+        }
+    }
+
+    @Test
+    public void testUnrankRoundTrip() {
+        production("Zero", cf("Exp"));
+        production("Add", cf("Exp"), cf("Exp"), cf("Exp"));
+        production("Seq", cf("Exp"), gf.createContextFreeSymbol(gf.createIterStarSymbol(gf.createSort("Exp"))));
+        production("Opt", cf("Exp"), gf.createContextFreeSymbol(gf.createOptionalSymbol(gf.createSort("Exp"))));
+
+        Enumerator enumerator = new Enumerator(generator());
+        List<IStrategoTerm> unranked = new ArrayList<>();
+
+        // Every rank of a size gives a different term of that size, so count and unrank agree
+        for (int size = 1; size <= 7; size++) {
+            int count = enumerator.count(cf("Exp"), size).intValueExact();
+            Set<IStrategoTerm> terms = new HashSet<>();
+
+            for (int rank = 0; rank < count; rank++) {
+                IStrategoTerm term = enumerator.unrank(cf("Exp"), size, BigInteger.valueOf(rank));
+
+                assertEquals(size, size(term));
+                terms.add(term);
+                unranked.add(term);
+            }
+
+            assertEquals(count, terms.size());
+
+            int outOfBounds = size;
+            assertThrows(IllegalArgumentException.class,
+                    () -> enumerator.unrank(cf("Exp"), outOfBounds, BigInteger.valueOf(count)));
+        }
+
+        // The enumeration lists the same terms, smallest first
+        Iterator<IStrategoTerm> terms = new Enumerator(generator()).enumerate(7);
+        List<IStrategoTerm> enumerated = new ArrayList<>();
+        terms.forEachRemaining(enumerated::add);
+
+        assertEquals(unranked, enumerated);
+    }
+
+    // Sizes as in Enumerator: one for a production plus its children, a string or an empty list, the sum of the elements
+    // of a non-empty list
+    private int size(IStrategoTerm term) {
+        switch (term.getTermType()) {
+            case IStrategoTerm.APPL:
+                return 1 + children(term);
+            case IStrategoTerm.LIST:
+                return term.getSubtermCount() == 0 ? 1 : children(term);
+            default:
+                return 1;
+        }
+    }
+
+    private int children(IStrategoTerm term) {
+        int size = 0;
+
+        for (IStrategoTerm child : term.getAllSubterms()) {
+            size += size(child);
+        }
+
+        return size;
+    }
+
+    private Generator generator() {
+        return new Generator(new GeneratorTermFactory(new TermFactory()), new SplitRandom(42), "Exp", grammar);
+    }
+
+    private Production production(String constructor, ISymbol lhs, ISymbol... rhs) {
+        Production production = gf.createProduction(lhs, Arrays.asList(rhs));
+
+        grammar.getCacheProductionsRead().put(production.toString(), production);
+        grammar.getProductionAttributesMapping().put(production, new ConstructorAttribute(constructor));
+
+        return production;
+    }
+
+    private ISymbol cf(String sort) {
+        return gf.createContextFreeSymbol(gf.createSort(sort));
+    }
+}
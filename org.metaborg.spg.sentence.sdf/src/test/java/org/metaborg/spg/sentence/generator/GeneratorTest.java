@@ -0,0 +1,144 @@
+package org.metaborg.spg.sentence.generator;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.ConstructorAttribute;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.NormGrammar;
+import org.metaborg.sdf2table.grammar.Production;
+import org.metaborg.spg.sentence.random.IRandom;
+import org.metaborg.spg.sentence.random.SplitRandom;
+import org.metaborg.spg.sentence.shared.generator.ListLengthStrategy;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeneratorTest {
+    private final GrammarFactory gf = new GrammarFactory();
+    private final NormGrammar grammar = new NormGrammar();
+
+    @Test
+    public void testGenerateFromSeed() {
+        Generator generator = generator(new SplitRandom(42));
+
+        for (int index = 0; index < 50; index++) {
+            assertTrue(generator.generate(index, 20).isPresent());
+            assertEquals(generator.generate(index, 20), generator.generateFromSeed(generator.getTermSeed(index), 20));
+        }
+    }
+
+    @Test
+    public void testReplayAcrossInstances() {
+        Generator first = generator(new SplitRandom(42).fork(GeneratorFactory.STREAM));
+        Generator second = generator(new SplitRandom(42).fork(GeneratorFactory.STREAM));
+
+        // The terms of the second generator do not depend on what was generated before
+        for (int index = 0; index < 50; index++) {
+            second.generate(20);
+        }
+
+        for (int index = 49; index >= 0; index--) {
+            assertEquals(first.generate(index, 20), second.generate(index, 20));
+        }
+    }
+
+    @Test
+    public void testCoverageIgnoresOrder() {
+        Generator sequential = generator(new SplitRandom(42), GeneratorConfig.Selection.COVERAGE);
+        Generator reversed = generator(new SplitRandom(42), GeneratorConfig.Selection.COVERAGE);
+
+        assertEquals(find(sequential, false), find(reversed, true));
+        assertEquals(sequential.getCoverage().statistics().toString(), reversed.getCoverage().statistics().toString());
+    }
+
+    @Test
+    public void testAdaptiveIgnoresOrder() {
+        Generator sequential = generator(new SplitRandom(42), GeneratorConfig.Selection.ADAPTIVE);
+        Generator reversed = generator(new SplitRandom(42), GeneratorConfig.Selection.ADAPTIVE);
+
+        assertEquals(find(sequential, false), find(reversed, true));
+        assertEquals(find(sequential, false), find(reversed, true));
+    }
+
+    @Test
+    public void testBoltzmannDeepTerm() {
+        production("Zero", cf("Exp"));
+        production("Succ", cf("Exp"), cf("Exp"));
+
+        Generator generator = new Generator(new GeneratorTermFactory(new TermFactory()), new SplitRandom(42), "Exp",
+                grammar);
+        BoltzmannGenerator boltzmann = new BoltzmannGenerator(generator, 100000, BoltzmannGenerator.DEFAULT_TOLERANCE);
+
+        // A chain this deep would overflow the JVM stack if sampling recursed
+        Optional<IStrategoTerm> term = boltzmann.generate(200000);
+
+        assertTrue(term.isPresent());
+        assertTrue(GeneratorAttachment.getSize(term.get()) >= 80000);
+    }
+
+    // Generates and tests the terms of a find, within a batch in reverse order if asked, rewarding the leaves
+    private List<Optional<IStrategoTerm>> find(Generator generator, boolean reverse) {
+        SelectionFeedback feedback = generator.getFeedback();
+        int batch = SelectionFeedback.BATCH_SIZE;
+        int terms = 3 * batch;
+
+        List<Optional<IStrategoTerm>> found = new ArrayList<>(Collections.nCopies(terms, Optional.empty()));
+        feedback.begin();
+
+        for (int start = 0; start < terms; start += batch) {
+            for (int i = 0; i < batch; i++) {
+                int index = reverse ? start + batch - 1 - i : start + i;
+                found.set(index, generator.generate(index, 20));
+            }
+
+            for (int i = 0; i < batch; i++) {
+                int index = reverse ? start + batch - 1 - i : start + i;
+                Optional<IStrategoTerm> term = found.get(index);
+
+                if (term.isPresent()) {
+                    feedback.rewarded(index, term.get(), term.get().getSubtermCount() == 0 ? 1 : 0);
+                }
+
+                feedback.tested(index);
+            }
+        }
+
+        feedback.end(terms);
+
+        return found;
+    }
+
+    private Generator generator(IRandom random) {
+        return generator(random, GeneratorConfig.Selection.UNIFORM);
+    }
+
+    private Generator generator(IRandom random, GeneratorConfig.Selection selection) {
+        production("Zero", cf("Exp"));
+        production("Add", cf("Exp"), cf("Exp"), cf("Exp"));
+
+        return new Generator(new GeneratorTermFactory(new TermFactory()), random, "Exp", grammar,
+                ListLengthStrategy.DEFAULT, selection);
+    }
+
+    private Production production(String constructor, ISymbol lhs, ISymbol... rhs) {
+        Production production = gf.createProduction(lhs, Arrays.asList(rhs));
+
+        grammar.getCacheProductionsRead().put(production.toString(), production);
+        grammar.getProductionAttributesMapping().put(production, new ConstructorAttribute(constructor));
+
+        return production;
+    }
+
+    private ISymbol cf(String sort) {
+        return gf.createContextFreeSymbol(gf.createSort(sort));
+    }
+}
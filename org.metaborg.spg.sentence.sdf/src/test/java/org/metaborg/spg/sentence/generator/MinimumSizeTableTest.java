@@ -0,0 +1,76 @@
+package org.metaborg.spg.sentence.generator;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.ConstructorAttribute;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.NormGrammar;
+import org.metaborg.sdf2table.grammar.Production;
+import org.metaborg.spg.sentence.random.Random;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MinimumSizeTableTest {
+    private final GrammarFactory gf = new GrammarFactory();
+    private final NormGrammar grammar = new NormGrammar();
+
+    @Test
+    public void testFixpoint() {
+        // The recursive production comes first, so its size is only known after its base case
+        Production add = production("Add", cf("Exp"), cf("Exp"), cf("Exp"));
+        Production num = production("Num", cf("Exp"), gf.createLexicalSymbol(gf.createSort("NUM")));
+
+        MinimumSizeTable minimumSizes = generator().getMinimumSizes();
+
+        assertEquals(2, minimumSizes.get(num));
+        assertEquals(5, minimumSizes.get(add));
+        assertEquals(2, minimumSizes.get(cf("Exp")));
+    }
+
+    @Test
+    public void testLists() {
+        production("Num", cf("Exp"), gf.createLexicalSymbol(gf.createSort("NUM")));
+        production("Block", cf("Block"), gf.createContextFreeSymbol(gf.createIterSymbol(gf.createSort("Exp"))));
+        production("Seq", cf("Seq"), gf.createContextFreeSymbol(gf.createIterStarSymbol(gf.createSort("Exp"))));
+
+        MinimumSizeTable minimumSizes = generator().getMinimumSizes();
+
+        assertEquals(3, minimumSizes.get(cf("Block")));
+        assertEquals(2, minimumSizes.get(cf("Seq")));
+    }
+
+    @Test
+    public void testUnproductive() {
+        Production loop = production("Loop", cf("Loop"), cf("Loop"));
+        production("Wrap", cf("Exp"), cf("Loop"));
+
+        MinimumSizeTable minimumSizes = generator().getMinimumSizes();
+
+        assertEquals(MinimumSizeTable.INFINITE, minimumSizes.get(loop));
+        assertEquals(MinimumSizeTable.INFINITE, minimumSizes.get(cf("Loop")));
+        assertEquals(MinimumSizeTable.INFINITE, minimumSizes.get(cf("Exp")));
+    }
+
+    private Generator generator() {
+        GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+
+        return new Generator(termFactory, new Random(0), "Exp", grammar);
+    }
+
+    private Production production(String constructor, ISymbol lhs, ISymbol... rhs) {
+        Production production = gf.createProduction(lhs, Arrays.asList(rhs));
+
+        grammar.getCacheProductionsRead().put(production.toString(), production);
+        grammar.getProductionAttributesMapping().put(production, new ConstructorAttribute(constructor));
+
+        return production;
+    }
+
+    private ISymbol cf(String sort) {
+        return gf.createContextFreeSymbol(gf.createSort(sort));
+    }
+}
@@ -0,0 +1,120 @@
+package org.metaborg.spg.sentence.printer;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.spg.sentence.sdf3.ContextFreeSection;
+import org.metaborg.spg.sentence.sdf3.Grammar;
+import org.metaborg.spg.sentence.sdf3.Module;
+import org.metaborg.spg.sentence.sdf3.PrioritiesSection;
+import org.metaborg.spg.sentence.sdf3.Priority;
+import org.metaborg.spg.sentence.sdf3.Production;
+import org.metaborg.spg.sentence.sdf3.Section;
+import org.metaborg.spg.sentence.sdf3.attribute.Attribute;
+import org.metaborg.spg.sentence.sdf3.attribute.Bracket;
+import org.metaborg.spg.sentence.sdf3.symbol.Layout;
+import org.metaborg.spg.sentence.sdf3.symbol.Literal;
+import org.metaborg.spg.sentence.sdf3.symbol.Nonterminal;
+import org.metaborg.spg.sentence.sdf3.symbol.Symbol;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TemplatePrinterTest {
+    private final GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+    private final GrammarFactory gf = new GrammarFactory();
+    private final ISymbol exp = gf.createContextFreeSymbol(gf.createSort("Exp"));
+    private final ISymbol integer = gf.createContextFreeSymbol(gf.createSort("INT"));
+    private final Nonterminal sort = new Nonterminal("Exp");
+
+    @Test
+    public void testTemplate() {
+        TemplatePrinter printer = printer(false);
+
+        assertEquals(Optional.of("1 + 2 * 3"), printer.print(add(number("1"), mul(number("2"), number("3")))));
+    }
+
+    @Test
+    public void testLowerPriorityChild() {
+        TemplatePrinter printer = printer(false);
+
+        assertEquals(Optional.empty(), printer.print(mul(add(number("1"), number("2")), number("3"))));
+    }
+
+    @Test
+    public void testTransitivePriority() {
+        TemplatePrinter printer = printer(false);
+
+        assertEquals(Optional.empty(), printer.print(neg(add(number("1"), number("2")))));
+        assertEquals(Optional.of("- 1 * 2"), printer.print(mul(neg(number("1")), number("2"))));
+    }
+
+    @Test
+    public void testBracketSort() {
+        TemplatePrinter printer = printer(true);
+
+        assertEquals(Optional.of("1"), printer.print(number("1")));
+        assertEquals(Optional.empty(), printer.print(add(number("1"), number("2"))));
+    }
+
+    // Neg > Mul > Add, optionally with a bracket production for Exp
+    private TemplatePrinter printer(boolean bracket) {
+        List<Production> productions = new ArrayList<>();
+        productions.add(production("Num", new Nonterminal("INT")));
+        productions.add(production("Neg", new Literal("-"), new Layout(" "), sort));
+        productions.add(operator("Mul", "*"));
+        productions.add(operator("Add", "+"));
+
+        if (bracket) {
+            List<Symbol> rhs = Arrays.asList(new Literal("("), sort, new Literal(")"));
+            List<Attribute> attributes = Collections.singletonList(new Bracket());
+
+            productions.add(new Production(sort, rhs, attributes, null, rhs));
+        }
+
+        List<Priority> priorities = Arrays.asList(new Priority("Exp.Neg", "Exp.Mul"), new Priority("Exp.Mul", "Exp.Add"));
+        List<Section> sections = Arrays.asList(new ContextFreeSection(productions), new PrioritiesSection(priorities));
+
+        return new TemplatePrinter(new Grammar(Collections.singleton(new Module("Test", Collections.emptySet(), sections))));
+    }
+
+    private Production operator(String constructor, String operator) {
+        return production(constructor, sort, new Layout(" "), new Literal(operator), new Layout(" "), sort);
+    }
+
+    private Production production(String constructor, Symbol... template) {
+        List<Symbol> rhs = new ArrayList<>();
+
+        for (Symbol symbol : template) {
+            if (!(symbol instanceof Layout)) {
+                rhs.add(symbol);
+            }
+        }
+
+        return new Production(sort, rhs, Collections.emptySet(), constructor, Arrays.asList(template));
+    }
+
+    private IStrategoTerm add(IStrategoTerm left, IStrategoTerm right) {
+        return termFactory.makeAppl("Add", new IStrategoTerm[] { left, right }, exp);
+    }
+
+    private IStrategoTerm mul(IStrategoTerm left, IStrategoTerm right) {
+        return termFactory.makeAppl("Mul", new IStrategoTerm[] { left, right }, exp);
+    }
+
+    private IStrategoTerm neg(IStrategoTerm term) {
+        return termFactory.makeAppl("Neg", new IStrategoTerm[] { term }, exp);
+    }
+
+    private IStrategoTerm number(String text) {
+        return termFactory.makeAppl("Num", new IStrategoTerm[] { termFactory.makeString(integer, text) }, exp);
+    }
+}
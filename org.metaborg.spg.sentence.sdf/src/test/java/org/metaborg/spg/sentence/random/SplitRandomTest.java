@@ -0,0 +1,75 @@
+package org.metaborg.spg.sentence.random;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class SplitRandomTest {
+    @Test
+    public void testForkIsDeterministic() {
+        IRandom first = new SplitRandom(42);
+        IRandom second = new SplitRandom(42);
+
+        for (long index = 0; index < 100; index++) {
+            assertEquals(draws(first.fork(index)), draws(second.fork(index)));
+        }
+    }
+
+    @Test
+    public void testForkIgnoresUse() {
+        IRandom fresh = new SplitRandom(42);
+        IRandom used = new SplitRandom(42);
+
+        for (int i = 0; i < 10; i++) {
+            used.fromRange(100);
+            used.split();
+        }
+
+        assertEquals(draws(fresh.fork(7)), draws(used.fork(7)));
+    }
+
+    @Test
+    public void testForkDependsOnIndexAndSeed() {
+        IRandom random = new SplitRandom(42);
+
+        assertNotEquals(draws(random.fork(0)), draws(random.fork(1)));
+        assertNotEquals(draws(random.fork(0)), draws(new SplitRandom(43).fork(0)));
+    }
+
+    @Test
+    public void testNamedForkIgnoresOrder() {
+        IRandom first = new SplitRandom(42);
+        IRandom second = new SplitRandom(42);
+
+        List<Integer> generator = draws(first.fork("generator"));
+        List<Integer> shrinker = draws(first.fork("shrinker"));
+
+        assertEquals(shrinker, draws(second.fork("shrinker")));
+        assertEquals(generator, draws(second.fork("generator")));
+        assertNotEquals(generator, shrinker);
+    }
+
+    @Test
+    public void testSplitIsDeterministic() {
+        IRandom first = new SplitRandom(42);
+        IRandom second = new SplitRandom(42);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(draws(first.split()), draws(second.split()));
+        }
+    }
+
+    private List<Integer> draws(IRandom random) {
+        List<Integer> draws = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            draws.add(random.fromRange(1000000));
+        }
+
+        return draws;
+    }
+}
@@ -0,0 +1,128 @@
+package org.metaborg.spg.sentence.shrinker;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CandidateQueueTest {
+    private final GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+    private final GrammarFactory gf = new GrammarFactory();
+    private final ISymbol symbol = gf.createContextFreeSymbol(gf.createSort("Exp"));
+
+    @Test
+    public void testLargestReductionFirst() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> false);
+
+        queue.add(2, 1, () -> term(8));
+        queue.add(5, 2, () -> term(5));
+        queue.add(3, 3, () -> term(7));
+
+        assertEquals(list(2, 3, 1), edits(queue));
+    }
+
+    @Test
+    public void testTiesKeepOrder() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> false);
+
+        queue.add(3, 1, () -> term(7));
+        queue.add(3, 2, () -> term(7));
+        queue.add(3, 3, () -> term(7));
+
+        assertEquals(list(1, 2, 3), edits(queue));
+    }
+
+    @Test
+    public void testRejectedEditsAreLeftOut() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> edit == 2);
+
+        queue.add(3, 1, () -> term(7));
+        queue.add(4, 2, () -> term(6));
+
+        assertEquals(list(1), edits(queue));
+    }
+
+    @Test
+    public void testEstimateIsRescheduled() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> false);
+
+        // Estimated to remove 9 nodes, but the generated term only removes 1
+        queue.addEstimate(9, () -> Optional.of(term(9)));
+        queue.add(4, 2, () -> term(6));
+        queue.addEstimate(9, Optional::empty);
+
+        List<Integer> sizes = queue.stream().map(candidate -> size(candidate.getTerm())).collect(Collectors.toList());
+
+        assertEquals(list(6, 9), sizes);
+    }
+
+    @Test
+    public void testNodesAreExpandedLazily() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> false);
+        int[] expanded = new int[1];
+
+        queue.addNode(5, () -> {
+            expanded[0]++;
+            queue.add(5, 1, () -> term(5));
+        });
+        queue.addNode(2, () -> {
+            expanded[0]++;
+            queue.add(2, 2, () -> term(8));
+        });
+
+        assertEquals(1, queue.next().getEdit());
+        assertEquals(1, expanded[0]);
+        assertEquals(2, queue.next().getEdit());
+        assertEquals(2, expanded[0]);
+    }
+
+    @Test
+    public void testNodeOrderBreaksTies() {
+        CandidateQueue queue = new CandidateQueue(term(10), edit -> false);
+
+        // The first node is expanded first, but the candidate of the second node removes more
+        queue.addNode(4, () -> {
+            queue.add(3, 1, () -> term(7));
+            queue.add(2, 2, () -> term(8));
+        });
+        queue.addNode(4, () -> {
+            queue.add(4, 3, () -> term(6));
+            queue.add(2, 4, () -> term(8));
+        });
+
+        assertEquals(list(3, 1, 2, 4), edits(queue));
+    }
+
+    private List<Integer> edits(CandidateQueue queue) {
+        return queue.stream().map(candidate -> (int) candidate.getEdit()).collect(Collectors.toList());
+    }
+
+    // A term of the given size: a chain of unary applications ending in a string
+    private IStrategoTerm term(int size) {
+        IStrategoTerm term = termFactory.makeString(symbol, "x");
+
+        for (int i = 1; i < size; i++) {
+            term = termFactory.makeAppl("S", new IStrategoTerm[] { term }, symbol);
+        }
+
+        return term;
+    }
+
+    private int size(IStrategoTerm term) {
+        return GeneratorAttachment.getSize(term);
+    }
+
+    private static List<Integer> list(Integer... elements) {
+        return Arrays.asList(elements);
+    }
+}
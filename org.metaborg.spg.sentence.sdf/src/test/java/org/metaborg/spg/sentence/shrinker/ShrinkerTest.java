@@ -0,0 +1,92 @@
+package org.metaborg.spg.sentence.shrinker;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.metaborg.sdf2table.grammar.NormGrammar;
+import org.metaborg.spg.sentence.generator.Generator;
+import org.metaborg.spg.sentence.generator.GeneratorAttachment;
+import org.metaborg.spg.sentence.random.SplitRandom;
+import org.metaborg.spg.sentence.signature.Signature;
+import org.metaborg.spg.sentence.terms.GeneratorTermFactory;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShrinkerTest {
+    private final GrammarFactory gf = new GrammarFactory();
+    private final ISymbol exp = gf.createContextFreeSymbol(gf.createSort("Exp"));
+    private final ISymbol num = gf.createContextFreeSymbol(gf.createSort("NUM"));
+    private final IterStarSymbol exps = gf.createIterStarSymbol(exp);
+    private final GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory());
+
+    @Test
+    public void testReplaceByPath() {
+        List<IStrategoTerm> candidates = shrink(add(number("1"), call(number("2"), number("3"))));
+
+        // Replace the root, an application and a list element
+        assertTrue(candidates.contains(number("1")));
+        assertTrue(candidates.contains(add(number("1"), number("2"))));
+        assertTrue(candidates.contains(add(number("1"), call(number("3")))));
+        assertTrue(candidates.contains(add(number("1"), call(number("2")))));
+    }
+
+    @Test
+    public void testSharesOtherSubterms() {
+        IStrategoTerm one = number("1");
+        IStrategoTerm three = number("3");
+        IStrategoTerm term = add(one, call(number("2"), three));
+
+        IStrategoTerm candidate = shrink(term).stream()
+                .filter(add(number("1"), call(number("3")))::equals)
+                .findFirst()
+                .get();
+
+        assertSame(one, candidate.getSubterm(0));
+        assertSame(three, candidate.getSubterm(1).getSubterm(0).getSubterm(0));
+    }
+
+    @Test
+    public void testSizes() {
+        for (IStrategoTerm candidate : shrink(add(number("1"), call(number("2"), number("3"))))) {
+            assertSizes(candidate);
+        }
+    }
+
+    // The generator has no productions, so only replacements by existing subterms and list removals remain
+    private List<IStrategoTerm> shrink(IStrategoTerm term) {
+        Generator generator = new Generator(termFactory, new SplitRandom(0), "Exp", new NormGrammar());
+        Signature signature = new Signature(Collections.emptyList());
+        Shrinker shrinker = new Shrinker(new SplitRandom(0), termFactory, generator, signature);
+
+        return shrinker.shrink(term).collect(Collectors.toList());
+    }
+
+    private void assertSizes(IStrategoTerm term) {
+        assertEquals(GeneratorAttachment.getSize(term.getAllSubterms()), GeneratorAttachment.getSize(term));
+
+        for (IStrategoTerm subterm : term.getAllSubterms()) {
+            assertSizes(subterm);
+        }
+    }
+
+    private IStrategoTerm add(IStrategoTerm left, IStrategoTerm right) {
+        return termFactory.makeAppl("Add", new IStrategoTerm[] { left, right }, exp);
+    }
+
+    private IStrategoTerm call(IStrategoTerm... arguments) {
+        return termFactory.makeAppl("Call", new IStrategoTerm[] { termFactory.makeList(exps, arguments) }, exp);
+    }
+
+    private IStrategoTerm number(String text) {
+        return termFactory.makeAppl("Num", new IStrategoTerm[] { termFactory.makeString(num, text) }, exp);
+    }
+}
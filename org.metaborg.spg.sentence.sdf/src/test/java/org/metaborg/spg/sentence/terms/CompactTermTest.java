@@ -0,0 +1,107 @@
+package org.metaborg.spg.sentence.terms;
+
+import org.junit.jupiter.api.Test;
+import org.metaborg.sdf2table.grammar.GrammarFactory;
+import org.metaborg.sdf2table.grammar.ISymbol;
+import org.metaborg.sdf2table.grammar.IterStarSymbol;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.TermFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class CompactTermTest {
+    private final GrammarFactory gf = new GrammarFactory();
+    private final ISymbol exp = gf.createContextFreeSymbol(gf.createSort("Exp"));
+    private final ISymbol num = gf.createContextFreeSymbol(gf.createSort("NUM"));
+    private final IterStarSymbol exps = gf.createIterStarSymbol(exp);
+
+    @Test
+    public void testPreOrder() {
+        CompactTerm index = CompactTerm.of(term(new GeneratorTermFactory(new TermFactory())));
+
+        // Add(Num("1"), Call([Num("2"), Num("3")]))
+        assertEquals(9, index.length());
+        assertEquals(CompactTerm.APPL, index.kind(0));
+        assertEquals("Add", index.label(0));
+        assertEquals(CompactTerm.LIST, index.kind(4));
+        assertEquals(2, index.arity(4));
+        assertEquals(CompactTerm.STRING, index.kind(8));
+        assertEquals("3", index.label(8));
+    }
+
+    @Test
+    public void testPath() {
+        CompactTerm index = CompactTerm.of(term(new GeneratorTermFactory(new TermFactory())));
+
+        assertArrayEquals(new int[] {}, index.path(0));
+        assertArrayEquals(new int[] { 0, 0 }, index.path(2));
+        assertArrayEquals(new int[] { 1, 0 }, index.path(4));
+        assertArrayEquals(new int[] { 1, 0, 1, 0 }, index.path(8));
+    }
+
+    @Test
+    public void testConsistentWithTerm() {
+        IStrategoTerm term = term(new GeneratorTermFactory(new TermFactory()));
+        CompactTerm index = CompactTerm.of(term);
+
+        for (int node = 0; node < index.length(); node++) {
+            IStrategoTerm subterm = subterm(term, index.path(node));
+
+            assertEquals(size(subterm), index.size(node));
+            assertEquals(subterm.getSubtermCount(), index.arity(node));
+            assertEquals(index.path(node).length, index.depth(node));
+        }
+    }
+
+    @Test
+    public void testFingerprint() {
+        CompactTerm first = CompactTerm.of(term(new GeneratorTermFactory(new TermFactory())));
+        CompactTerm second = CompactTerm.of(term(new GeneratorTermFactory(new TermFactory())));
+
+        for (int node = 0; node < first.length(); node++) {
+            assertEquals(first.fingerprint(node), second.fingerprint(node));
+        }
+
+        // Num("2") and Num("3") differ in content
+        assertNotEquals(first.fingerprint(5), first.fingerprint(7));
+
+        // The two occurrences of one shared Num("1") differ in position
+        GeneratorTermFactory termFactory = new GeneratorTermFactory(new TermFactory(), true);
+        IStrategoTerm one = number(termFactory, "1");
+        CompactTerm shared = CompactTerm.of(termFactory.makeAppl("Add", new IStrategoTerm[] { one, one }, exp));
+
+        assertEquals(5, shared.length());
+        assertNotEquals(shared.fingerprint(1), shared.fingerprint(3));
+    }
+
+    private IStrategoTerm term(GeneratorTermFactory termFactory) {
+        IStrategoTerm list = termFactory.makeList(exps, number(termFactory, "2"), number(termFactory, "3"));
+        IStrategoTerm call = termFactory.makeAppl("Call", new IStrategoTerm[] { list }, exp);
+
+        return termFactory.makeAppl("Add", new IStrategoTerm[] { number(termFactory, "1"), call }, exp);
+    }
+
+    private IStrategoTerm number(GeneratorTermFactory termFactory, String text) {
+        return termFactory.makeAppl("Num", new IStrategoTerm[] { termFactory.makeString(num, text) }, exp);
+    }
+
+    private IStrategoTerm subterm(IStrategoTerm term, int[] path) {
+        for (int index : path) {
+            term = term.getSubterm(index);
+        }
+
+        return term;
+    }
+
+    private int size(IStrategoTerm term) {
+        int size = 1;
+
+        for (IStrategoTerm subterm : term.getAllSubterms()) {
+            size += size(subterm);
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,28 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * Every element after the fewest is added with the given probability, as with the coin flips of the original
+ * generators, cut off at the most elements that fit in the budget.
+ */
+public class GeometricListLength implements ListLengthStrategy {
+    private final double probability;
+
+    public GeometricListLength(double probability) {
+        if (probability < 0 || probability >= 1) {
+            throw new IllegalArgumentException("The probability of another element must be in [0, 1).");
+        }
+
+        this.probability = probability;
+    }
+
+    @Override
+    public int length(int minimum, int maximum, RandomSource random) {
+        int length = minimum;
+
+        while (length < maximum && random.nextDouble() < probability) {
+            length++;
+        }
+
+        return ListLengthStrategy.clamp(length, minimum, maximum);
+    }
+}
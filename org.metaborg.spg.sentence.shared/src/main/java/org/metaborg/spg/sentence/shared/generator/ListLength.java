@@ -0,0 +1,25 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * The list-length strategies that can be selected by name, e.g. from the command line or a dialog.
+ */
+public enum ListLength {
+    GEOMETRIC,
+    UNIFORM,
+    POISSON,
+    PROPORTIONAL;
+
+    // The geometric and Poisson strategies add one element on average, as did the coin flips of the original generators
+    public ListLengthStrategy strategy() {
+        switch (this) {
+            case UNIFORM:
+                return new UniformListLength();
+            case POISSON:
+                return new PoissonListLength(1.0);
+            case PROPORTIONAL:
+                return new ProportionalListLength(0.5);
+            default:
+                return ListLengthStrategy.DEFAULT;
+        }
+    }
+}
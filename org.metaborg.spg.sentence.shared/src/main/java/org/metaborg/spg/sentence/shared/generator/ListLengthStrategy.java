@@ -0,0 +1,14 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * Chooses the length of a generated list up front, given the fewest and the most elements that fit in its budget.
+ */
+public interface ListLengthStrategy {
+    ListLengthStrategy DEFAULT = new GeometricListLength(0.5);
+
+    int length(int minimum, int maximum, RandomSource random);
+
+    static int clamp(int length, int minimum, int maximum) {
+        return Math.max(minimum, Math.min(maximum, length));
+    }
+}
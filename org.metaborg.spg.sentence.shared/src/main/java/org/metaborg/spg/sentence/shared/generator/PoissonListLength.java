@@ -0,0 +1,30 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * Lengths follow a Poisson distribution with the given mean, cut off at the bounds of the budget.
+ */
+public class PoissonListLength implements ListLengthStrategy {
+    private final double mean;
+
+    public PoissonListLength(double mean) {
+        if (mean <= 0) {
+            throw new IllegalArgumentException("The mean list length must be positive.");
+        }
+
+        this.mean = mean;
+    }
+
+    @Override
+    public int length(int minimum, int maximum, RandomSource random) {
+        int length = 0;
+        double time = -Math.log(1 - random.nextDouble());
+
+        // Count the arrivals of a unit-rate Poisson process before the mean; sums instead of products do not underflow
+        while (time < mean && length < maximum) {
+            length++;
+            time -= Math.log(1 - random.nextDouble());
+        }
+
+        return ListLengthStrategy.clamp(length, minimum, maximum);
+    }
+}
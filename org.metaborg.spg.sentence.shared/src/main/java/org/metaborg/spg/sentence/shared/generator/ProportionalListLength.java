@@ -0,0 +1,24 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * Lengths grow with the budget: they are drawn uniformly around the given fraction of the most elements that fit.
+ */
+public class ProportionalListLength implements ListLengthStrategy {
+    private final double fraction;
+
+    public ProportionalListLength(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("The fraction of the budget must be in (0, 1].");
+        }
+
+        this.fraction = fraction;
+    }
+
+    @Override
+    public int length(int minimum, int maximum, RandomSource random) {
+        double mean = fraction * maximum;
+        int length = (int) Math.round(mean * (0.5 + random.nextDouble()));
+
+        return ListLengthStrategy.clamp(length, minimum, maximum);
+    }
+}
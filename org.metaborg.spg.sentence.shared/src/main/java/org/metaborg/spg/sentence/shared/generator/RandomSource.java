@@ -0,0 +1,28 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+import java.util.Random;
+
+/**
+ * The random numbers that the generator strategies shared by the SDF and ANTLR generators draw.
+ */
+public interface RandomSource {
+    // A uniformly distributed integer in [0, bound)
+    int fromRange(int bound);
+
+    // A uniformly distributed double in [0, 1)
+    double nextDouble();
+
+    static RandomSource of(Random random) {
+        return new RandomSource() {
+            @Override
+            public int fromRange(int bound) {
+                return random.nextInt(bound);
+            }
+
+            @Override
+            public double nextDouble() {
+                return random.nextDouble();
+            }
+        };
+    }
+}
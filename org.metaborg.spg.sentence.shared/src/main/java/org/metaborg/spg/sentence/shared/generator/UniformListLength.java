@@ -0,0 +1,15 @@
+package org.metaborg.spg.sentence.shared.generator;
+
+/**
+ * Every length that fits in the budget is equally likely.
+ */
+public class UniformListLength implements ListLengthStrategy {
+    @Override
+    public int length(int minimum, int maximum, RandomSource random) {
+        if (maximum <= minimum) {
+            return minimum;
+        }
+
+        return minimum + random.fromRange(maximum - minimum + 1);
+    }
+}
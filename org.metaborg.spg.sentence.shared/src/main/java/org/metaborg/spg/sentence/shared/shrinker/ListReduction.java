@@ -0,0 +1,65 @@
+package org.metaborg.spg.sentence.shared.shrinker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ranges of elements that a shrinker tries to remove from a list, as {@code [from, to)} pairs, in the order in
+ * which they are tried. Removals that would leave fewer than the minimum number of elements are left out.
+ */
+public enum ListReduction {
+    // Remove one element at a time
+    SINGLE {
+        @Override
+        public List<int[]> removals(int length, int minimumLength) {
+            if (length - 1 < minimumLength) {
+                return Collections.emptyList();
+            }
+
+            List<int[]> removals = new ArrayList<>(length);
+
+            for (int i = 0; i < length; i++) {
+                removals.add(new int[] { i, i + 1 });
+            }
+
+            return removals;
+        }
+    },
+
+    // Remove halves, then quarters and so on down to single elements, as in delta debugging (ddmin)
+    DDMIN {
+        @Override
+        public List<int[]> removals(int length, int minimumLength) {
+            if (length == 0) {
+                return Collections.emptyList();
+            }
+
+            List<int[]> removals = new ArrayList<>(2 * length);
+            Set<Long> seen = new HashSet<>();
+
+            for (int chunks = 2; ; chunks *= 2) {
+                int chunkSize = (length + chunks - 1) / chunks;
+
+                for (int from = 0; from < length; from += chunkSize) {
+                    int to = Math.min(from + chunkSize, length);
+
+                    // With rounded up chunk sizes the last chunk of a level can equal one of the level before
+                    if (length - (to - from) >= minimumLength && seen.add((long) from << 32 | to)) {
+                        removals.add(new int[] { from, to });
+                    }
+                }
+
+                if (chunkSize == 1) {
+                    break;
+                }
+            }
+
+            return removals;
+        }
+    };
+
+    public abstract List<int[]> removals(int length, int minimumLength);
+}
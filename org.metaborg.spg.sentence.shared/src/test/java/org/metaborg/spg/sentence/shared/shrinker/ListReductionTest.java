@@ -0,0 +1,73 @@
+package org.metaborg.spg.sentence.shared.shrinker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListReductionTest {
+    @Test
+    public void testRangesAreValid() {
+        for (ListReduction listReduction : ListReduction.values()) {
+            for (int length = 0; length <= 17; length++) {
+                for (int minimumLength = 0; minimumLength <= 1; minimumLength++) {
+                    for (int[] removal : listReduction.removals(length, minimumLength)) {
+                        assertTrue(0 <= removal[0] && removal[0] < removal[1] && removal[1] <= length);
+                        assertTrue(length - (removal[1] - removal[0]) >= minimumLength);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDdminHasNoDuplicates() {
+        for (int length = 0; length <= 17; length++) {
+            Set<Long> ranges = new HashSet<>();
+
+            for (int[] removal : ListReduction.DDMIN.removals(length, 0)) {
+                assertTrue(ranges.add((long) removal[0] << 32 | removal[1]));
+            }
+        }
+    }
+
+    @Test
+    public void testDdminEndsWithSingleElements() {
+        for (int length = 1; length <= 17; length++) {
+            List<int[]> removals = ListReduction.DDMIN.removals(length, 0);
+            Set<Integer> singles = new HashSet<>();
+
+            for (int[] removal : removals) {
+                if (removal[1] - removal[0] == 1) {
+                    singles.add(removal[0]);
+                }
+            }
+
+            assertEquals(length, singles.size());
+        }
+    }
+
+    @Test
+    public void testDdminOrder() {
+        List<int[]> removals = ListReduction.DDMIN.removals(4, 0);
+
+        assertEquals(6, removals.size());
+        assertArrayEquals(new int[] { 0, 2 }, removals.get(0));
+        assertArrayEquals(new int[] { 2, 4 }, removals.get(1));
+        assertArrayEquals(new int[] { 0, 1 }, removals.get(2));
+        assertArrayEquals(new int[] { 3, 4 }, removals.get(5));
+    }
+
+    @Test
+    public void testMinimumLength() {
+        assertTrue(ListReduction.SINGLE.removals(1, 1).isEmpty());
+        assertTrue(ListReduction.DDMIN.removals(1, 1).isEmpty());
+        assertEquals(1, ListReduction.DDMIN.removals(1, 0).size());
+        assertTrue(ListReduction.DDMIN.removals(0, 0).isEmpty());
+    }
+}